@@ -0,0 +1,80 @@
+import com.rivelez.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark del costo por request de validar el JWT: el camino anterior del
+ * filtro (clave armada en cada llamada y tres parseos del mismo token) contra
+ * JwtService.verify sin cache (un parseo) y con el token ya en cache.
+ *
+ * Ejecutar con Java 21 después de compilar el backend:
+ *
+ * ./mvnw -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:$(cat target/cp.txt) benchmark/JwtBenchmark.java --iteraciones 200000
+ *
+ * Imprime la latencia p50/p99 por request de cada variante.
+ */
+public class JwtBenchmark {
+
+    private static final String CLAVE_FIRMA = "RiVelezBackend2024SecretKeyParaElSistemaDeGestionSeguro123456789ABCDEFGHIJ";
+
+    public static void main(String[] args) {
+        Map<String, String> opciones = parseArgs(args);
+        int iteraciones = Integer.parseInt(opciones.getOrDefault("iteraciones", "200000"));
+
+        JwtService conCache = new JwtService(86400000L, 10000);
+        JwtService sinCache = new JwtService(86400000L, 0);
+        String token = conCache.generateToken(User.withUsername("cajero1").password("x").roles("CAJERO").build());
+
+        medir("anterior (3 parseos)", iteraciones, () -> {
+            String usuario = parseAnterior(token).getSubject();
+            boolean valido = usuario.equals(parseAnterior(token).getSubject())
+                    && parseAnterior(token).getExpiration().after(new Date());
+            return valido ? usuario : null;
+        });
+        medir("verify sin cache", iteraciones, () -> sinCache.verify(token).getSubject());
+        medir("verify con cache", iteraciones, () -> conCache.verify(token).getSubject());
+    }
+
+    private static Claims parseAnterior(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(CLAVE_FIRMA.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static void medir(String nombre, int iteraciones, Supplier<String> request) {
+        for (int i = 0; i < iteraciones / 4; i++) {
+            request.get(); // Calentamiento
+        }
+        long[] tiempos = new long[iteraciones];
+        for (int i = 0; i < iteraciones; i++) {
+            long inicio = System.nanoTime();
+            if (request.get() == null) {
+                throw new IllegalStateException("Token rechazado");
+            }
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        System.out.printf("%-22s p50 %8.2f us   p99 %8.2f us%n", nombre, tiempos[iteraciones / 2] / 1e3,
+                tiempos[(int) (iteraciones * 0.99)] / 1e3);
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opciones.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opciones;
+    }
+}
@@ -0,0 +1,191 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark de carga para los endpoints públicos de pedidos y menú.
+ *
+ * Ejecutar con Java 21, sin compilar:
+ *
+ * java benchmark/LoadBenchmark.java --url http://localhost:8080 --clientes 200 --duracion 30 --calentamiento 10 --modo plataforma
+ *
+ * Cada cliente repite en bucle GET /api/products, GET /api/orders/numero/{n}
+ * y GET /api/orders/table/{mesa} sobre un pedido creado al inicio. Al final
+ * imprime requests/s y latencias p50/p99/máx por endpoint, y una línea
+ * RESULTADO para comparar modos (ver run_benchmark.ps1 / run_benchmark.sh).
+ */
+public class LoadBenchmark {
+
+    // Histograma logarítmico en microsegundos con ~1% de precisión
+    private static final double BASE = Math.log(1.01);
+    private static final int BUCKETS = 2000;
+
+    static final class Stats {
+        final String nombre;
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        final LongAdder requests = new LongAdder();
+        final LongAdder errores = new LongAdder();
+
+        Stats(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void record(long micros, boolean ok) {
+            int i = micros <= 1 ? 0 : (int) Math.min(BUCKETS - 1, Math.log(micros) / BASE);
+            buckets.incrementAndGet(i);
+            requests.increment();
+            if (!ok) {
+                errores.increment();
+            }
+        }
+
+        double percentile(double p) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += buckets.get(i);
+            }
+            long objetivo = (long) Math.ceil(total * p);
+            long acumulado = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                acumulado += buckets.get(i);
+                if (acumulado >= objetivo && acumulado > 0) {
+                    return Math.exp((i + 1) * BASE) / 1000.0;
+                }
+            }
+            return 0;
+        }
+
+        double max() {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                if (buckets.get(i) > 0) {
+                    return Math.exp((i + 1) * BASE) / 1000.0;
+                }
+            }
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = parseArgs(args);
+        String url = opciones.getOrDefault("url", "http://localhost:8080");
+        int clientes = Integer.parseInt(opciones.getOrDefault("clientes", "200"));
+        int duracion = Integer.parseInt(opciones.getOrDefault("duracion", "30"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "10"));
+        int mesa = Integer.parseInt(opciones.getOrDefault("mesa", "1"));
+        String modo = opciones.getOrDefault("modo", "sin-nombre");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String numeroPedido = createOrder(client, url, mesa);
+        List<String> endpoints = List.of(
+                "/api/products",
+                "/api/orders/numero/" + numeroPedido,
+                "/api/orders/table/" + mesa);
+
+        System.out.printf("Modo %s: %d clientes, %ds de calentamiento, %ds de medición contra %s%n",
+                modo, clientes, calentamiento, duracion, url);
+
+        run(client, url, endpoints, clientes, calentamiento, null);
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        endpoints.forEach(e -> stats.put(e, new Stats(e)));
+        long inicio = System.nanoTime();
+        run(client, url, endpoints, clientes, duracion, stats);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Stats total = new Stats("TOTAL");
+        System.out.printf("%-40s %10s %8s %10s %10s %10s %10s%n", "endpoint", "requests", "errores", "req/s",
+                "p50 ms", "p99 ms", "max ms");
+        for (Stats s : stats.values()) {
+            print(s, segundos);
+            for (int i = 0; i < BUCKETS; i++) {
+                total.buckets.addAndGet(i, s.buckets.get(i));
+            }
+            total.requests.add(s.requests.sum());
+            total.errores.add(s.errores.sum());
+        }
+        print(total, segundos);
+        System.out.printf("RESULTADO modo=%s rps=%.1f p99_ms=%.2f errores=%d%n", modo,
+                total.requests.sum() / segundos, total.percentile(0.99), total.errores.sum());
+    }
+
+    private static void run(HttpClient client, String url, List<String> endpoints, int clientes, int segundos,
+            Map<String, Stats> stats) throws InterruptedException {
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int desfase = c;
+                workers.submit(() -> {
+                    int i = desfase;
+                    while (System.nanoTime() < fin) {
+                        String endpoint = endpoints.get(i++ % endpoints.size());
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url + endpoint))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long t0 = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (stats != null) {
+                            stats.get(endpoint).record((System.nanoTime() - t0) / 1000, ok);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private static String createOrder(HttpClient client, String url, int mesa) throws Exception {
+        String productos = client.send(HttpRequest.newBuilder(URI.create(url + "/api/products")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher producto = Pattern.compile("\"id\":(\\d+)").matcher(productos);
+        if (!producto.find()) {
+            throw new IllegalStateException("No hay productos en " + url);
+        }
+
+        String body = "{\"numeroMesa\":" + mesa + ",\"personas\":2,\"items\":[{\"productoId\":" + producto.group(1)
+                + ",\"cantidad\":1}]}";
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher numero = Pattern.compile("\"numeroPedido\":\"([^\"]+)\"").matcher(response.body());
+        if (response.statusCode() != 201 || !numero.find()) {
+            throw new IllegalStateException("No se pudo crear el pedido de prueba: " + response.body());
+        }
+        return numero.group(1);
+    }
+
+    private static void print(Stats s, double segundos) {
+        System.out.printf("%-40s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", s.nombre, s.requests.sum(),
+                s.errores.sum(), s.requests.sum() / segundos, s.percentile(0.50), s.percentile(0.99), s.max());
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        List<String> lista = new ArrayList<>(List.of(args));
+        for (int i = 0; i + 1 < lista.size(); i += 2) {
+            opciones.put(lista.get(i).replaceFirst("^--", ""), lista.get(i + 1));
+        }
+        return opciones;
+    }
+}
@@ -0,0 +1,109 @@
+import com.rivelez.dto.ProductDTO;
+import com.rivelez.entity.ProductCategory;
+import com.rivelez.service.ProductSearchIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark de latencia de ProductSearchIndex con un catálogo sintético.
+ *
+ * Ejecutar con Java 21 después de compilar el backend:
+ *
+ * ./mvnw -q compile
+ * java -cp target/classes benchmark/SearchBenchmark.java --productos 10000 --iteraciones 20000
+ *
+ * Imprime el tiempo de carga del índice, la latencia p50/p99/máx por
+ * consulta (exacta, sin tildes, prefijo, con error de tipeo, varias
+ * palabras) y el costo de reindexar un producto.
+ */
+public class SearchBenchmark {
+
+    private static final String[] PLATOS = { "Milanesa", "Empanada", "Pizza", "Ensalada", "Tarta", "Sándwich",
+            "Hamburguesa", "Ñoquis", "Ravioles", "Lomo", "Pollo", "Merluza", "Flan", "Helado", "Budín", "Limonada",
+            "Cerveza", "Licuado", "Tostado", "Risotto" };
+    private static final String[] ESTILOS = { "a la napolitana", "de carne", "de jamón y queso", "con papas",
+            "al verdeo", "caprese", "de espinaca", "a la pimienta", "con morrón", "de calabaza", "al champiñón",
+            "casera", "patagónica", "del día", "con crema", "a caballo" };
+    private static final String[] INGREDIENTES = { "Tomate", "Morrón", "Cebolla", "Jamón", "Queso", "Albahaca",
+            "Papa", "Huevo", "Crema", "Champiñón", "Ajo", "Perejil", "Limón", "Azúcar", "Harina", "Aceitunas",
+            "Orégano", "Pimienta", "Calabaza", "Espinaca" };
+
+    public static void main(String[] args) {
+        Map<String, String> opciones = parseArgs(args);
+        int cantidad = Integer.parseInt(opciones.getOrDefault("productos", "10000"));
+        int iteraciones = Integer.parseInt(opciones.getOrDefault("iteraciones", "20000"));
+
+        Random random = new Random(42);
+        List<ProductDTO> catalogo = new ArrayList<>(cantidad);
+        for (long id = 1; id <= cantidad; id++) {
+            catalogo.add(product(id, random));
+        }
+
+        ProductSearchIndex index = new ProductSearchIndex();
+        long t0 = System.nanoTime();
+        index.putAll(catalogo);
+        System.out.printf("Carga de %d productos: %.1f ms%n", index.size(), (System.nanoTime() - t0) / 1e6);
+
+        List<String> consultas = List.of("milanesa", "morron", "napo", "milaneza", "milanesa napolitana",
+                "noquis calabaza", "pizza champinon", "hamburgesa con papas");
+        System.out.printf("%-25s %10s %10s %10s %10s%n", "consulta", "resultados", "p50 us", "p99 us", "max us");
+        for (String consulta : consultas) {
+            for (int i = 0; i < iteraciones / 4; i++) {
+                index.search(consulta, 50); // Calentamiento
+            }
+            long[] tiempos = new long[iteraciones];
+            int resultados = 0;
+            for (int i = 0; i < iteraciones; i++) {
+                long inicio = System.nanoTime();
+                resultados = index.search(consulta, 50).size();
+                tiempos[i] = System.nanoTime() - inicio;
+            }
+            Arrays.sort(tiempos);
+            System.out.printf("%-25s %10d %10.1f %10.1f %10.1f%n", consulta, resultados,
+                    tiempos[iteraciones / 2] / 1e3, tiempos[(int) (iteraciones * 0.99)] / 1e3,
+                    tiempos[iteraciones - 1] / 1e3);
+        }
+
+        long[] tiempos = new long[iteraciones];
+        for (int i = 0; i < iteraciones; i++) {
+            long inicio = System.nanoTime();
+            index.put(product(1 + random.nextInt(cantidad), random));
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        System.out.printf("Reindexar un producto: p50 %.1f us, p99 %.1f us%n", tiempos[iteraciones / 2] / 1e3,
+                tiempos[(int) (iteraciones * 0.99)] / 1e3);
+    }
+
+    private static ProductDTO product(long id, Random random) {
+        List<String> ingredientes = new ArrayList<>();
+        for (int i = 0; i < 3 + random.nextInt(4); i++) {
+            ingredientes.add(INGREDIENTES[random.nextInt(INGREDIENTES.length)]);
+        }
+        String nombre = PLATOS[random.nextInt(PLATOS.length)] + " " + ESTILOS[random.nextInt(ESTILOS.length)]
+                + " #" + id;
+        return ProductDTO.builder()
+                .id(id)
+                .nombre(nombre)
+                .descripcion("Preparación con " + String.join(", ", ingredientes).toLowerCase())
+                .precio(BigDecimal.valueOf(1000 + random.nextInt(9000)))
+                .categoria(ProductCategory.values()[random.nextInt(ProductCategory.values().length)])
+                .disponible(true)
+                .ingredientes(ingredientes)
+                .build();
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opciones.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opciones;
+    }
+}
@@ -0,0 +1,50 @@
+# Compara hilos de plataforma vs. hilos virtuales (VIRTUAL_THREADS) en los
+# endpoints públicos de pedidos y menú. Usa la base configurada por
+# DB_URL / DB_USER / DB_PASSWORD, igual que el backend. Los resultados solo
+# son comparables si se miden contra MySQL, como en producción.
+param(
+    [int]$Clientes = 200,
+    [int]$Duracion = 30,
+    [int]$Calentamiento = 10,
+    [int]$Puerto = 8080
+)
+
+Set-Location "$PSScriptRoot\.."
+$Resultados = "target\benchmark-resultados.txt"
+
+Write-Host "=== Construyendo el backend ===" -ForegroundColor Cyan
+.\mvnw.cmd -B -q -DskipTests package
+if ($LASTEXITCODE -ne 0) {
+    Write-Error "Error al construir el backend."
+    exit $LASTEXITCODE
+}
+$Jar = (Get-ChildItem "target\backend-*.jar" | Select-Object -First 1).FullName
+Set-Content -Path $Resultados -Value ""
+
+foreach ($Modo in @("plataforma", "virtual")) {
+    Write-Host "=== Modo $Modo ===" -ForegroundColor Cyan
+    $env:VIRTUAL_THREADS = if ($Modo -eq "virtual") { "true" } else { "false" }
+    $Log = "target\benchmark-$Modo.log"
+    $Proceso = Start-Process java -ArgumentList "-Djdk.tracePinnedThreads=short", "-jar", $Jar, "--server.port=$Puerto", "--spring.jpa.show-sql=false" `
+        -RedirectStandardOutput $Log -RedirectStandardError "$Log.err" -PassThru -NoNewWindow
+
+    while (-not (Select-String -Path $Log -Pattern "Started RiVelezApplication" -Quiet)) {
+        if ($Proceso.HasExited) {
+            Write-Error "El backend no arrancó, ver $Log"
+            exit 1
+        }
+        Start-Sleep -Seconds 1
+    }
+    Start-Sleep -Seconds 5 # Carga de datos demo
+
+    java benchmark\LoadBenchmark.java --url "http://localhost:$Puerto" --clientes $Clientes `
+        --duracion $Duracion --calentamiento $Calentamiento --modo $Modo | Tee-Object -FilePath $Resultados -Append
+
+    Stop-Process -Id $Proceso.Id
+    # jdk.tracePinnedThreads imprime una traza cada vez que un hilo virtual bloquea fijado a su carrier
+    $Fijados = (Select-String -Path $Log -Pattern "reason:|<== monitors").Count
+    Write-Host "Hilos virtuales fijados (pinning): $Fijados" -ForegroundColor Yellow
+}
+
+Write-Host "=== Comparación ===" -ForegroundColor Cyan
+Select-String -Path $Resultados -Pattern "RESULTADO" | ForEach-Object { $_.Line }
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Compara hilos de plataforma vs. hilos virtuales (VIRTUAL_THREADS) en los
+# endpoints públicos de pedidos y menú. Usa la base configurada por
+# DB_URL / DB_USER / DB_PASSWORD, igual que el backend. Los resultados solo
+# son comparables si se miden contra MySQL, como en producción.
+#
+# Uso: CLIENTES=200 DURACION=30 ./benchmark/run_benchmark.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CLIENTES=${CLIENTES:-200}
+DURACION=${DURACION:-30}
+CALENTAMIENTO=${CALENTAMIENTO:-10}
+PUERTO=${PUERTO:-8080}
+RESULTADOS=target/benchmark-resultados.txt
+
+./mvnw -B -q -DskipTests package
+JAR=$(ls target/backend-*.jar | head -1)
+: > "$RESULTADOS"
+
+for modo in plataforma virtual; do
+    echo "=== Modo $modo ==="
+    VIRTUAL_THREADS=$([ "$modo" = virtual ] && echo true || echo false) \
+        java -Djdk.tracePinnedThreads=short -jar "$JAR" --server.port="$PUERTO" --spring.jpa.show-sql=false \
+        > "target/benchmark-$modo.log" 2>&1 &
+    PID=$!
+    until grep -q "Started RiVelezApplication" "target/benchmark-$modo.log"; do
+        kill -0 "$PID" 2>/dev/null || { echo "El backend no arrancó, ver target/benchmark-$modo.log"; exit 1; }
+        sleep 1
+    done
+    sleep 5 # Carga de datos demo
+
+    java benchmark/LoadBenchmark.java --url "http://localhost:$PUERTO" --clientes "$CLIENTES" \
+        --duracion "$DURACION" --calentamiento "$CALENTAMIENTO" --modo "$modo" | tee -a "$RESULTADOS"
+
+    kill "$PID"
+    wait "$PID" || true
+    # jdk.tracePinnedThreads imprime una traza cada vez que un hilo virtual bloquea fijado a su carrier
+    echo "Hilos virtuales fijados (pinning): $(grep -c 'reason:\|<== monitors' "target/benchmark-$modo.log" || true)"
+done
+
+echo "=== Comparación ==="
+grep RESULTADO "$RESULTADOS"
@@ -0,0 +1,154 @@
+package com.rivelez.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Habilita la ejecución de tareas programadas (heartbeats, limpiezas, etc.)
+ * y asíncronas (efectos secundarios de los pedidos).
+ *
+ * Con spring.threads.virtual.enabled=true Tomcat atiende cada request en un
+ * hilo virtual, y este executor y el scheduler también usan hilos virtuales.
+ *
+ * Las respuestas async de MVC (StreamingResponseBody de las exportaciones)
+ * corren en mvcAsyncExecutor: como acá hay otros executors, Boot no crea el
+ * applicationTaskExecutor y MVC usaría un SimpleAsyncTaskExecutor sin límite.
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class AsyncConfig implements SchedulingConfigurer, WebMvcConfigurer {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean hilosVirtuales;
+
+    @Value("${export.executor.threads:4}")
+    private int hilosExportacion;
+
+    @Value("${export.executor.queue-capacity:8}")
+    private int colaExportacion;
+
+    /**
+     * Executor acotado para las tareas del outbox de pedidos. Si la cola se
+     * llena la tarea se descarta aquí: sigue pendiente en la base y la toma el
+     * barrido periódico.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor sideEffectExecutor(
+            @Value("${outbox.executor.core-size:2}") int coreSize,
+            @Value("${outbox.executor.max-size:4}") int maxSize,
+            @Value("${outbox.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("pedido-efectos-");
+        if (hilosVirtuales) {
+            // El pool sigue acotando la concurrencia; solo cambia el tipo de hilo
+            executor.setThreadFactory(Thread.ofVirtual().name("pedido-efectos-", 1).factory());
+        }
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler((tarea, pool) -> log
+                .warn("Executor de efectos saturado; la tarea queda para el barrido del outbox"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Executor acotado para BCrypt (login y registro). Cada hash ocupa una
+     * CPU ~100 ms: con pocos hilos una ráfaga de logins no deja sin CPU al
+     * resto de la aplicación, y con la cola llena se rechaza en el acto
+     * (PasswordHashingService responde 503).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${auth.hash.threads:2}") int hilos,
+            @Value("${auth.hash.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Hilos que escriben los eventos SSE de seguimiento de pedidos. Cada
+     * suscripción tiene como mucho una tarea en cola, así que alcanza con una
+     * cola del tamaño del límite de conexiones; un cliente lento ocupa un
+     * hilo mientras dura su escritura, no el commit del pedido.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor sseExecutor(
+            @Value("${orders.sse.executor.threads:4}") int hilos,
+            @Value("${orders.sse.max-connections:200}") int maxConexiones) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("pedido-sse-");
+        if (hilosVirtuales) {
+            executor.setThreadFactory(Thread.ofVirtual().name("pedido-sse-", 1).factory());
+        }
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(maxConexiones);
+        return executor;
+    }
+
+    /**
+     * Executor acotado para las respuestas async de MVC. Cada descarga ocupa
+     * un hilo y una conexión a la base mientras dura; con la cola llena se
+     * rechaza (GerenteController responde 503).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mvc-async-");
+        if (hilosVirtuales) {
+            executor.setThreadFactory(Thread.ofVirtual().name("mvc-async-", 1).factory());
+        }
+        executor.setCorePoolSize(hilosExportacion);
+        executor.setMaxPoolSize(hilosExportacion);
+        executor.setQueueCapacity(colaExportacion);
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
+    /**
+     * Scheduler propio para los @Scheduled, así no comparten hilos con los
+     * heartbeats del broker STOMP
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setTaskScheduler(taskScheduler());
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler() {
+        if (hilosVirtuales) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setThreadNamePrefix("programadas-");
+            scheduler.setVirtualThreads(true);
+            return scheduler;
+        }
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("programadas-");
+        scheduler.setPoolSize(2);
+        return scheduler;
+    }
+}
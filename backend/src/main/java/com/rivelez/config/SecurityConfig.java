@@ -1,6 +1,7 @@
 package com.rivelez.config;
 
 import com.rivelez.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +39,9 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Segunda pasada de una respuesta async (exportaciones): el
+                        // request original ya pasó la autorización
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Recursos estáticos frontend (Monolito)
                         .requestMatchers("/", "/index.html", "/assets/**", "/vite.svg", "/*.ico", "/*.json", "/*.png")
                         .permitAll()
@@ -46,6 +50,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/health").permitAll()
                         .requestMatchers("/api/debug/**").permitAll() // DEBUG
                         .requestMatchers("/api/public/**").permitAll()
+                        // Handshake del hub STOMP (la autenticación va en el frame CONNECT)
+                        .requestMatchers("/ws/**").permitAll()
                         // Endpoints de productos (lectura pública)
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/products/**").permitAll()
                         // Endpoints de mesas (lectura pública)
@@ -53,8 +59,10 @@ public class SecurityConfig {
                         .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/tables/*/release").permitAll()
                         // Endpoints para pedidos de clientes
                         .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/orders").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/orders/quote").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/orders/table/**").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/orders/numero/**").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/orders/*/events").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/orders/*").permitAll() // Permitir
                                                                                                                   // cancelación
                                                                                                                   // por
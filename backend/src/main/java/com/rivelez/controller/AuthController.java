@@ -4,9 +4,15 @@ import com.rivelez.dto.AuthResponse;
 import com.rivelez.dto.LoginRequest;
 import com.rivelez.dto.RegisterRequest;
 import com.rivelez.dto.UserDTO;
+import com.rivelez.security.AuthenticatedUser;
 import com.rivelez.service.AuthService;
+import com.rivelez.service.LoginRateLimiter;
+import com.rivelez.service.PasswordHashingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,12 +29,19 @@ public class AuthController {
     private final AuthService authService;
 
     /**
-     * Login de usuario
+     * Login de usuario. 429 si se superó el ritmo de intentos del usuario o
+     * de la IP, 503 si el pool de hash está saturado (con Retry-After).
      * POST /api/auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        AuthResponse response;
+        try {
+            response = authService.login(request, httpRequest.getRemoteAddr());
+        } catch (RuntimeException e) {
+            return rejected(e);
+        }
 
         if (response.getToken() == null) {
             return ResponseEntity.badRequest().body(response);
@@ -42,8 +55,14 @@ public class AuthController {
      * POST /api/auth/register
      */
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        AuthResponse response = authService.register(request);
+    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
+        AuthResponse response;
+        try {
+            response = authService.register(request, httpRequest.getRemoteAddr());
+        } catch (RuntimeException e) {
+            return rejected(e);
+        }
 
         if (response.getToken() == null) {
             return ResponseEntity.badRequest().body(response);
@@ -53,7 +72,7 @@ public class AuthController {
     }
 
     /**
-     * Obtener información del usuario autenticado
+     * Obtener información del usuario autenticado (desde los claims del token)
      * GET /api/auth/me
      */
     @GetMapping("/me")
@@ -62,7 +81,26 @@ public class AuthController {
             return ResponseEntity.status(401).build();
         }
 
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            return ResponseEntity.ok(authService.getCurrentUser(authenticatedUser));
+        }
+
         UserDTO user = authService.getCurrentUser(userDetails.getUsername());
         return ResponseEntity.ok(user);
     }
+
+    private ResponseEntity<AuthResponse> rejected(RuntimeException e) {
+        AuthResponse body = AuthResponse.builder().message(e.getMessage()).build();
+        if (e instanceof LoginRateLimiter.DemasiadosIntentosException demasiados) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(demasiados.getSegundosEspera()))
+                    .body(body);
+        }
+        if (e instanceof PasswordHashingService.ServidorOcupadoException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(body);
+        }
+        throw e;
+    }
 }
@@ -0,0 +1,32 @@
+package com.rivelez.controller;
+
+import com.rivelez.dto.FloorTableDTO;
+import com.rivelez.service.FloorStateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador para la pantalla de caja
+ */
+@RestController
+@RequestMapping("/api/cajero")
+@RequiredArgsConstructor
+public class CajeroController {
+
+    private final FloorStateService floorStateService;
+
+    /**
+     * Obtener el plano del salón: cada mesa con su pedido activo, si está
+     * lista para pagar y el método de pago solicitado
+     * GET /api/cajero/floor
+     */
+    @GetMapping("/floor")
+    @PreAuthorize("hasAnyRole('GERENTE', 'CAJERO')")
+    public ResponseEntity<List<FloorTableDTO>> getFloor() {
+        return ResponseEntity.ok(floorStateService.getFloor());
+    }
+}
@@ -0,0 +1,216 @@
+package com.rivelez.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rivelez.dto.AuthMetricsDTO;
+import com.rivelez.dto.OutboxTaskDTO;
+import com.rivelez.dto.RollupCheckDTO;
+import com.rivelez.service.AuthService;
+import com.rivelez.service.ExportService;
+import com.rivelez.service.OrderOutboxService;
+import com.rivelez.service.SalesRollupService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controlador para tareas de administración del gerente
+ */
+@RestController
+@RequestMapping("/api/gerente")
+@RequiredArgsConstructor
+public class GerenteController {
+
+    private static final int DIAS_REVISION_DEFECTO = 30;
+    private static final int BUFFER_GZIP = 64 * 1024;
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final SalesRollupService salesRollupService;
+    private final ExportService exportService;
+    private final AuthService authService;
+    private final OrderOutboxService orderOutboxService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Recalcular los resúmenes diarios de ventas desde los pedidos. Sin
+     * fechas recalcula todo el histórico.
+     * POST /api/gerente/rollups/rebuild?desde=2024-01-01&hasta=2024-01-31
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<?> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            if (desde == null && hasta == null) {
+                salesRollupService.rebuildAll();
+                return ResponseEntity.noContent().build();
+            }
+            if (desde == null || hasta == null || hasta.isBefore(desde)) {
+                throw new RuntimeException("Rango de fechas inválido");
+            }
+            salesRollupService.rebuild(desde, hasta);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Métricas de autenticación: pool de hash de contraseñas (cola, tiempos)
+     * y logins rechazados por límite de intentos
+     * GET /api/gerente/auth/metrics
+     */
+    @GetMapping("/auth/metrics")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<AuthMetricsDTO> getAuthMetrics() {
+        return ResponseEntity.ok(authService.getMetrics());
+    }
+
+    /**
+     * Tareas diferidas de pedidos con fallas: las fallidas (ocupación de
+     * mesa) y las de stock que siguen reintentando
+     * GET /api/gerente/outbox
+     */
+    @GetMapping("/outbox")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<List<OutboxTaskDTO>> getOutboxProblems() {
+        return ResponseEntity.ok(orderOutboxService.getProblems());
+    }
+
+    /**
+     * Reintentar ya una tarea diferida fallida o en espera
+     * POST /api/gerente/outbox/15/retry
+     */
+    @PostMapping("/outbox/{id}/retry")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<?> retryOutboxTask(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(orderOutboxService.retry(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Comparar los resúmenes diarios contra la tabla de pedidos (por defecto
+     * los últimos 30 días)
+     * GET /api/gerente/rollups/check?desde=2024-01-01&hasta=2024-01-31
+     */
+    @GetMapping("/rollups/check")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<?> checkRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_REVISION_DEFECTO);
+        if (fin.isBefore(inicio)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Rango de fechas inválido"));
+        }
+        RollupCheckDTO resultado = salesRollupService.check(inicio, fin);
+        return ResponseEntity.ok(resultado);
+    }
+
+    /**
+     * Exportar pedidos, items o movimientos de stock de un rango de fechas
+     * (ambas inclusive) en CSV o NDJSON. La respuesta se escribe a medida que
+     * se leen las filas; con Accept-Encoding: gzip se comprime al vuelo.
+     * GET /api/gerente/export/pedidos?desde=2024-01-01&hasta=2024-01-31&formato=csv
+     */
+    @GetMapping("/export/{tipo}")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String tipo,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportService.Tipo conjunto;
+        ExportService.Formato salida;
+        try {
+            conjunto = ExportService.Tipo.fromRuta(tipo);
+            salida = ExportService.Formato.fromParam(formato);
+            if (hasta.isBefore(desde)) {
+                throw new RuntimeException("Rango de fechas inválido");
+            }
+        } catch (RuntimeException e) {
+            byte[] error = toJson(Map.of("error", e.getMessage()));
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write(error));
+        }
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String archivo = conjunto.getRuta() + "_" + desde + "_" + hasta
+                + (salida == ExportService.Formato.CSV ? ".csv" : ".ndjson");
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(salida == ExportService.Formato.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archivo).build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(out -> {
+            if (gzip) {
+                GZIPOutputStream comprimido = new GZIPOutputStream(out, BUFFER_GZIP);
+                exportService.write(conjunto, salida, desde, hasta, comprimido);
+                comprimido.finish();
+            } else {
+                exportService.write(conjunto, salida, desde, hasta, out);
+            }
+        });
+    }
+
+    /**
+     * El executor de MVC está lleno: la descarga no llegó a empezar y se
+     * descartan los encabezados del archivo
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<?> exportRejected(HttpServletResponse response) {
+        response.reset();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "Hay demasiadas exportaciones en curso"));
+    }
+
+    private byte[] toJson(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
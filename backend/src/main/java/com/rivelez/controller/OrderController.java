@@ -3,15 +3,23 @@ package com.rivelez.controller;
 import com.rivelez.dto.CreateOrderRequest;
 import com.rivelez.dto.OrderDTO;
 import com.rivelez.dto.OrderItemRequest;
+import com.rivelez.dto.OrderSearchRequest;
+import com.rivelez.dto.QuoteRequest;
 import com.rivelez.entity.OrderStatus;
 import com.rivelez.entity.PaymentMethod;
+import com.rivelez.service.IdempotencyService;
+import com.rivelez.service.OrderEventService;
 import com.rivelez.service.OrderService;
+import com.rivelez.service.PricingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -26,6 +34,9 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderEventService orderEventService;
+    private final IdempotencyService idempotencyService;
+    private final PricingService pricingService;
 
     /**
      * Obtener todos los pedidos
@@ -57,6 +68,20 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getPendingOrders());
     }
 
+    /**
+     * Buscar pedidos con filtros, paginado por cursor
+     * GET /api/orders/search?desde=&hasta=&estado=&mesa=&metodoPago=&totalMin=&totalMax=&limite=&cursor=&incluirItems=
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('GERENTE', 'CAJERO')")
+    public ResponseEntity<?> searchOrders(@ModelAttribute OrderSearchRequest filtros) {
+        try {
+            return ResponseEntity.ok(orderService.searchOrders(filtros));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Obtener pedido por ID
      * GET /api/orders/{id}
@@ -70,6 +95,29 @@ public class OrderController {
         }
     }
 
+    /**
+     * Suscribirse a los cambios de estado de un pedido (Server-Sent Events)
+     * GET /api/orders/{id}/events
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderEvents(@PathVariable Long id) {
+        OrderDTO order;
+        try {
+            order = orderService.getOrderById(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = orderEventService.subscribe(id, order);
+        if (emitter == null) {
+            // Límite de conexiones alcanzado: el cliente reintenta más tarde
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     /**
      * Obtener pedido por número
      * GET /api/orders/numero/{numeroPedido}
@@ -107,10 +155,27 @@ public class OrderController {
      * POST /api/orders
      */
     @PostMapping
-    public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<?> createOrder(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        return idempotencyService.execute("crear-pedido", idempotencyKey, request, () -> {
+            try {
+                OrderDTO created = orderService.createOrder(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(created);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Cotizar un carrito con las promociones vigentes, sin crear el pedido
+     * POST /api/orders/quote
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<?> quoteOrder(@Valid @RequestBody QuoteRequest request) {
         try {
-            OrderDTO created = orderService.createOrder(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+            return ResponseEntity.ok(pricingService.quote(request.getItems()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -123,12 +188,15 @@ public class OrderController {
     @PostMapping("/{id}/items")
     public ResponseEntity<?> addItemsToOrder(
             @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody List<OrderItemRequest> items) {
-        try {
-            return ResponseEntity.ok(orderService.addItemsToOrder(id, items));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        return idempotencyService.execute("agregar-items:" + id, idempotencyKey, items, () -> {
+            try {
+                return ResponseEntity.ok(orderService.addItemsToOrder(id, items));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
     /**
@@ -156,15 +224,19 @@ public class OrderController {
     @PreAuthorize("hasAnyRole('GERENTE', 'CAJERO')")
     public ResponseEntity<?> processPayment(
             @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, Object> body) {
-        try {
-            PaymentMethod metodoPago = PaymentMethod.valueOf((String) body.get("metodoPago"));
-            BigDecimal propina = body.get("propina") != null ? new BigDecimal(body.get("propina").toString()) : null;
+        return idempotencyService.execute("pagar:" + id, idempotencyKey, body, () -> {
+            try {
+                PaymentMethod metodoPago = PaymentMethod.valueOf((String) body.get("metodoPago"));
+                BigDecimal propina = body.get("propina") != null ? new BigDecimal(body.get("propina").toString())
+                        : null;
 
-            return ResponseEntity.ok(orderService.processPayment(id, metodoPago, propina));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+                return ResponseEntity.ok(orderService.processPayment(id, metodoPago, propina));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
     /**
@@ -3,10 +3,15 @@ package com.rivelez.controller;
 import com.rivelez.dto.ProductDTO;
 import com.rivelez.dto.ProductRequest;
 import com.rivelez.entity.ProductCategory;
+import com.rivelez.service.MenuSnapshotService;
+import com.rivelez.service.ProductSearchService;
 import com.rivelez.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +28,8 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final MenuSnapshotService menuSnapshotService;
+    private final ProductSearchService productSearchService;
 
     /**
      * Obtener todos los productos
@@ -34,12 +41,15 @@ public class ProductController {
     }
 
     /**
-     * Obtener solo productos disponibles (para clientes)
+     * Obtener solo productos disponibles (para clientes), desde el menú
+     * precalculado. Responde 304 si el ETag del cliente sigue vigente.
      * GET /api/products/available
      */
     @GetMapping("/available")
-    public ResponseEntity<List<ProductDTO>> getAvailableProducts() {
-        return ResponseEntity.ok(productService.getAvailableProducts());
+    public ResponseEntity<byte[]> getAvailableProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return menuResponse(menuSnapshotService.getMenu(), ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -69,17 +79,21 @@ public class ProductController {
      * GET /api/products/category/{categoria}/available
      */
     @GetMapping("/category/{categoria}/available")
-    public ResponseEntity<List<ProductDTO>> getAvailableProductsByCategory(@PathVariable ProductCategory categoria) {
-        return ResponseEntity.ok(productService.getAvailableProductsByCategory(categoria));
+    public ResponseEntity<byte[]> getAvailableProductsByCategory(@PathVariable ProductCategory categoria,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return menuResponse(menuSnapshotService.getMenu(categoria), ifNoneMatch, acceptEncoding);
     }
 
     /**
-     * Buscar productos por nombre
-     * GET /api/products/search?q={query}
+     * Buscar productos por nombre, ingredientes o descripción (sin importar
+     * tildes), ordenados por relevancia
+     * GET /api/products/search?q={query}&limite={n}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam("q") String query) {
-        return ResponseEntity.ok(productService.searchProducts(query));
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(productSearchService.search(query, Math.max(1, Math.min(limite, 200))));
     }
 
     /**
@@ -139,4 +153,41 @@ public class ProductController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    /**
+     * Arma la respuesta del menú: 304 si el ETag coincide, gzip si el cliente
+     * lo acepta. no-cache obliga al navegador a revalidar en cada uso.
+     */
+    private ResponseEntity<byte[]> menuResponse(MenuSnapshotService.MenuEntry menu, String ifNoneMatch,
+            String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        boolean vigente = menu.matches(ifNoneMatch);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(vigente ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(gzip ? menu.getGzipEtag() : menu.getEtag())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache())
+                .header("X-Menu-Version", String.valueOf(menuSnapshotService.getVersion()));
+
+        if (vigente) {
+            return respuesta.build();
+        }
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.contentType(MediaType.APPLICATION_JSON)
+                .body(gzip ? menu.getGzip() : menu.getJson());
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -3,10 +3,14 @@ package com.rivelez.controller;
 import com.rivelez.dto.ReportSummaryDTO;
 import com.rivelez.service.ReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.Map;
+
 /**
  * Controlador para reportes
  */
@@ -15,6 +19,8 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class ReportController {
 
+    private static final int DIAS_MAPA_DE_CALOR_DEFECTO = 28;
+
     private final ReportService reportService;
 
     /**
@@ -28,4 +34,22 @@ public class ReportController {
             @RequestParam(defaultValue = "7") int dias) {
         return ResponseEntity.ok(reportService.getSummary(dias));
     }
+
+    /**
+     * Mapa de calor de ventas por día de la semana y hora. Por defecto las
+     * últimas 4 semanas incluyendo hoy.
+     * GET /api/reports/heatmap?desde=2024-01-01&hasta=2024-01-28
+     */
+    @GetMapping("/heatmap")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<?> getHeatmap(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_MAPA_DE_CALOR_DEFECTO - 1);
+        if (fin.isBefore(inicio)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Rango de fechas inválido"));
+        }
+        return ResponseEntity.ok(reportService.getHeatmap(inicio, fin));
+    }
 }
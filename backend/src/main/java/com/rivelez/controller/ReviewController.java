@@ -1,10 +1,13 @@
 package com.rivelez.controller;
 
 import com.rivelez.dto.ReviewDTO;
+import com.rivelez.dto.ReviewSearchRequest;
+import com.rivelez.dto.ReviewStatsDTO;
 import com.rivelez.service.ReviewService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,6 +31,20 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getAll());
     }
 
+    /**
+     * Buscar reseñas con filtros y texto en el comentario, paginado por cursor
+     * GET /api/reviews/search?calificacionMin=&calificacionMax=&mesa=&texto=&limite=&cursor=
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('GERENTE')")
+    public ResponseEntity<?> searchReviews(@ModelAttribute ReviewSearchRequest filtros) {
+        try {
+            return ResponseEntity.ok(reviewService.search(filtros));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<List<ReviewDTO>> getRecentReviews(@RequestParam(defaultValue = "10") int limit) {
         return ResponseEntity.ok(reviewService.getRecent(limit));
@@ -35,10 +52,19 @@ public class ReviewController {
 
     @GetMapping("/average")
     public ResponseEntity<Map<String, Object>> getAverageRating() {
-        double average = reviewService.getAverageRating();
-        int count = reviewService.getAll().size();
+        ReviewStatsDTO stats = reviewService.getStats();
         return ResponseEntity.ok(Map.of(
-                "promedio", Math.round(average * 10.0) / 10.0,
-                "total", count));
+                "promedio", Math.round(stats.getPromedio() * 10.0) / 10.0,
+                "total", stats.getTotal()));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ReviewStatsDTO> getStats(@RequestParam(required = false) Integer mesa) {
+        return ResponseEntity.ok(mesa != null ? reviewService.getStats(mesa) : reviewService.getStats());
+    }
+
+    @GetMapping("/stats/mesas")
+    public ResponseEntity<List<ReviewStatsDTO>> getStatsByTable() {
+        return ResponseEntity.ok(reviewService.getStatsByTable());
     }
 }
@@ -0,0 +1,48 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado del pool de hash de contraseñas y los rechazos de
+ * login, acumulados desde el arranque
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthMetricsDTO {
+
+    private HashPool hash;
+    private Ingresos ingresos;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HashPool {
+        private int hilos;
+        private int activos;
+        private int enCola;
+        private int capacidadCola;
+        private long completados;
+        private long rechazados;
+        private double hashPromedioMs;
+        private double hashMaximoMs;
+        private double esperaPromedioMs;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Ingresos {
+        private long admitidos;
+        private long rechazadosPorUsuario;
+        private long rechazadosPorIp;
+        private int usuariosSeguidos;
+        private int ipsSeguidas;
+    }
+}
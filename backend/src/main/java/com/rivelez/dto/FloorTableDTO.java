@@ -0,0 +1,30 @@
+package com.rivelez.dto;
+
+import com.rivelez.entity.PaymentMethod;
+import com.rivelez.entity.TableStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para el plano del salón de caja: una mesa con su pedido activo
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FloorTableDTO {
+
+    private Long id;
+    private Integer numero;
+    private Integer capacidad;
+    private TableStatus estado;
+    private Integer ocupantes;
+    private LocalDateTime horaInicio;
+    private OrderDTO pedido; // Pedido activo más reciente de la mesa (null si no tiene)
+    private boolean listoParaPagar;
+    private PaymentMethod metodoPagoSolicitado;
+}
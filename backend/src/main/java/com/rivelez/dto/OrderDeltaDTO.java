@@ -0,0 +1,37 @@
+package com.rivelez.dto;
+
+import com.rivelez.entity.OrderStatus;
+import com.rivelez.entity.PaymentMethod;
+import com.rivelez.event.OrderChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cambio incremental de un pedido enviado a las pantallas del personal.
+ * Los items solo se incluyen cuando cambiaron (pedido nuevo o items agregados).
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDeltaDTO {
+
+    private Long id;
+    private OrderChangedEvent.Tipo tipo;
+    private String numeroPedido;
+    private Integer numeroMesa;
+    private OrderStatus estado;
+    private BigDecimal total;
+    private PaymentMethod metodoPago;
+    private Boolean listoParaPagar;
+    private PaymentMethod metodoPagoSolicitado;
+    private List<OrderItemDTO> items;
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaActualizacion;
+}
@@ -0,0 +1,22 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para una página de la búsqueda de pedidos. Para pedir la siguiente
+ * página se envía siguienteCursor como cursor (null si no hay más).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDTO {
+
+    private List<OrderDTO> pedidos;
+    private String siguienteCursor;
+}
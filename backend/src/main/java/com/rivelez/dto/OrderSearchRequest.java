@@ -0,0 +1,35 @@
+package com.rivelez.dto;
+
+import com.rivelez.entity.OrderStatus;
+import com.rivelez.entity.PaymentMethod;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtros de la búsqueda paginada de pedidos (todos opcionales)
+ */
+@Data
+@NoArgsConstructor
+public class OrderSearchRequest {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime hasta; // Exclusivo
+
+    private List<OrderStatus> estado;
+    private Integer mesa;
+    private PaymentMethod metodoPago;
+    private BigDecimal totalMin;
+    private BigDecimal totalMax;
+
+    private String cursor; // Valor de siguienteCursor de la página anterior
+    private Integer limite;
+    private boolean incluirItems;
+}
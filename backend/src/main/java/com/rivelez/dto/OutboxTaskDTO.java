@@ -0,0 +1,30 @@
+package com.rivelez.dto;
+
+import com.rivelez.entity.OutboxTaskStatus;
+import com.rivelez.entity.OutboxTaskType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de una tarea diferida de pedido, para revisar fallas
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxTaskDTO {
+
+    private Long id;
+    private OutboxTaskType tipo;
+    private Long pedidoId;
+    private String motivo;
+    private OutboxTaskStatus estado;
+    private Integer intentos;
+    private LocalDateTime proximoIntento;
+    private String ultimoError;
+    private LocalDateTime fecha;
+}
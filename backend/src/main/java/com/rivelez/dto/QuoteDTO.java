@@ -0,0 +1,25 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con la cotización de un carrito: precios de lista, descuentos de
+ * promociones vigentes y total a cobrar
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteDTO {
+
+    private List<QuoteItemDTO> items;
+    private BigDecimal subtotal; // A precio de lista
+    private BigDecimal descuento;
+    private BigDecimal total;
+}
@@ -0,0 +1,27 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para un item cotizado
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteItemDTO {
+
+    private Long productoId;
+    private String nombreProducto;
+    private Integer cantidad;
+    private BigDecimal precioLista;
+    private Double porcentajeDescuento; // null si no hay promoción vigente
+    private String promocion;
+    private BigDecimal precioUnitario;
+    private BigDecimal subtotal;
+}
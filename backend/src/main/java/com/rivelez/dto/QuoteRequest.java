@@ -0,0 +1,22 @@
+package com.rivelez.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para cotizar un carrito sin crear el pedido
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequest {
+
+    @NotEmpty(message = "Debe incluir al menos un item")
+    @Valid
+    private List<OrderItemRequest> items;
+}
@@ -35,6 +35,7 @@ public class ReportSummaryDTO {
     private List<ProductoVendido> topProductos;
     private List<UltimaVenta> ultimasVentas;
     private Map<String, Double> metodosPago;
+    private List<OcupacionHora> ocupacionPorHora;
 
     @Data
     @Builder
@@ -68,4 +69,14 @@ public class ReportSummaryDTO {
         private String fecha;
         private Integer cantidadItems;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OcupacionHora {
+        private Integer hora;
+        private Double promedio;
+        private Double maxima;
+    }
 }
@@ -0,0 +1,20 @@
+package com.rivelez.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros de la búsqueda paginada de reseñas (todos opcionales)
+ */
+@Data
+@NoArgsConstructor
+public class ReviewSearchRequest {
+
+    private Integer calificacionMin;
+    private Integer calificacionMax;
+    private Integer mesa;
+    private String texto; // Palabras del comentario, sin importar tildes ni mayúsculas
+
+    private String cursor; // Valor de siguienteCursor de la página anterior
+    private Integer limite;
+}
@@ -0,0 +1,22 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el promedio y el histograma de estrellas de las reseñas, globales
+ * o de una mesa
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewStatsDTO {
+
+    private Integer numeroMesa; // null en las estadísticas globales
+    private double promedio;
+    private long total;
+    private long[] estrellas; // Reseñas con 1 a 5 estrellas (índice 0 = 1 estrella)
+}
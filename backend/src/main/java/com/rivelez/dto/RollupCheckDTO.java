@@ -0,0 +1,37 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO con el resultado de comparar los resúmenes diarios de ventas contra
+ * la tabla de pedidos
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupCheckDTO {
+
+    private LocalDate desde;
+    private LocalDate hasta;
+    private boolean consistente;
+    private List<Diferencia> diferencias;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Diferencia {
+        private String tabla;
+        private LocalDate fecha;
+        private String clave; // Producto, método de pago u hora; null en daily_sales
+        private String esperado; // Calculado desde orders
+        private String actual; // Guardado en el resumen
+    }
+}
@@ -0,0 +1,30 @@
+package com.rivelez.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO del mapa de calor de ventas: pedidos pagados y ventas por día de la
+ * semana (lunes a domingo) y hora (0 a 23)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesHeatmapDTO {
+
+    private LocalDate desde;
+    private LocalDate hasta;
+    private List<String> dias; // Nombres de las filas, de lunes a domingo
+    private int[] ocurrencias; // Cuántas veces aparece cada día de la semana en el rango, para promediar
+    private long[][] pedidos; // [dia][hora]
+    private BigDecimal[][] ventas; // [dia][hora]
+    private long maxPedidos;
+    private BigDecimal maxVentas;
+}
@@ -15,7 +15,13 @@ import java.util.List;
  * Entidad Pedido del cliente
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Búsqueda paginada por (fecha_creacion, id) con y sin filtros
+        @Index(name = "idx_orders_fecha_id", columnList = "fecha_creacion, id"),
+        @Index(name = "idx_orders_estado_fecha_id", columnList = "estado, fecha_creacion, id"),
+        @Index(name = "idx_orders_mesa_fecha_id", columnList = "numero_mesa, fecha_creacion, id"),
+        @Index(name = "idx_orders_metodo_pago_fecha_id", columnList = "metodo_pago, fecha_creacion, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,43 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Entidad Ocupación del día: mesas ocupadas y mesas existentes en cada
+ * minuto, más los totales del horario de atención para sumar rangos sin
+ * leer las series. La mantiene OccupancyService.
+ */
+@Entity
+@Table(name = "daily_occupancy")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOccupancy {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    // 1440 valores de 16 bits (big-endian), uno por minuto del día
+    @Column(nullable = false, length = 2880)
+    private byte[] ocupadas;
+
+    @Column(nullable = false, length = 2880)
+    private byte[] mesas;
+
+    // Minutos-mesa ocupados y existentes dentro del horario de atención
+    @Column(name = "minutos_ocupados", nullable = false)
+    private Long minutosOcupados;
+
+    @Column(name = "minutos_mesa", nullable = false)
+    private Long minutosMesa;
+
+    // Último minuto registrado (-1 si ninguno)
+    @Column(name = "ultimo_minuto", nullable = false)
+    private Integer ultimoMinuto;
+}
@@ -0,0 +1,41 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Entidad Pedidos pagados del día por método de pago
+ */
+@Entity
+@Table(name = "daily_payment_method")
+@IdClass(DailyPaymentMethod.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPaymentMethod {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metodo_pago")
+    private PaymentMethod metodoPago;
+
+    @Column(nullable = false)
+    private Long pedidos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate fecha;
+        private PaymentMethod metodoPago;
+    }
+}
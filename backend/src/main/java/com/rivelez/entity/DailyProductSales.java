@@ -0,0 +1,45 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad Ventas del día por producto (por nombre, igual que el histórico
+ * de los items)
+ */
+@Entity
+@Table(name = "daily_product_sales")
+@IdClass(DailyProductSales.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyProductSales {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Id
+    @Column(name = "nombre_producto")
+    private String nombreProducto;
+
+    @Column(nullable = false)
+    private Long cantidad;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate fecha;
+        private String nombreProducto;
+    }
+}
@@ -0,0 +1,31 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad Ventas del día: pedidos pagados y total vendido por fecha de
+ * creación del pedido. La mantiene SalesRollupService al cobrar.
+ */
+@Entity
+@Table(name = "daily_sales")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySales {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private Long pedidos;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ventas;
+}
@@ -0,0 +1,45 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad Ventas por hora: pedidos pagados y total vendido por día y hora
+ * de creación del pedido. La mantiene SalesRollupService al cobrar.
+ */
+@Entity
+@Table(name = "hourly_sales")
+@IdClass(HourlySales.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlySales {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Id
+    @Column(name = "hora")
+    private Integer hora;
+
+    @Column(nullable = false)
+    private Long pedidos;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ventas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate fecha;
+        private Integer hora;
+    }
+}
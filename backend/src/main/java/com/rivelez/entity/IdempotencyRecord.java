@@ -0,0 +1,47 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad para registrar las respuestas de solicitudes con Idempotency-Key.
+ * Mientras la solicitud se procesa, la fila existe sin estadoHttp y actúa
+ * como reserva de la clave entre instancias.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_fecha", columnList = "fecha"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String clave; // Operación + Idempotency-Key
+
+    @Column(nullable = false, length = 64)
+    private String huella; // SHA-256 del cuerpo de la solicitud
+
+    @Column(name = "estado_http")
+    private Integer estadoHttp; // Null mientras se procesa
+
+    @Column(columnDefinition = "TEXT")
+    private String respuesta; // Cuerpo JSON de la respuesta
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @PrePersist
+    protected void onCreate() {
+        fecha = LocalDateTime.now();
+    }
+}
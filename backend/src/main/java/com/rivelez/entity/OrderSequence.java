@@ -0,0 +1,27 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Entidad Secuencia diaria de números de pedido. Cada instancia reserva
+ * bloques avanzando "siguiente" y los reparte desde memoria.
+ */
+@Entity
+@Table(name = "order_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSequence {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha; // Fecha de negocio
+
+    @Column(nullable = false)
+    private Long siguiente; // Primer número todavía no reservado
+}
@@ -0,0 +1,68 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad Tarea diferida (outbox). Se guarda en la misma transacción que el
+ * pedido y se ejecuta después del commit, con reintentos.
+ */
+@Entity
+@Table(name = "outbox_tasks", indexes = {
+        @Index(name = "idx_outbox_estado_proximo", columnList = "estado, proximo_intento"),
+        @Index(name = "idx_outbox_pedido", columnList = "pedido_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxTaskType tipo;
+
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedidoId;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // Cantidades por item de stock (JSON)
+
+    @Column(columnDefinition = "TEXT")
+    private String motivo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private OutboxTaskStatus estado = OutboxTaskStatus.PENDIENTE;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "ultimo_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @PrePersist
+    protected void onCreate() {
+        fecha = LocalDateTime.now();
+        if (proximoIntento == null) {
+            proximoIntento = fecha;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.rivelez.entity;
+
+/**
+ * Estados de una tarea diferida
+ */
+public enum OutboxTaskStatus {
+    PENDIENTE, // Por ejecutar o reintentar
+    COMPLETADA, // Aplicada
+    FALLIDA // Agotó los reintentos (solo ocupación de mesa), se reintenta desde /api/gerente/outbox
+}
@@ -0,0 +1,10 @@
+package com.rivelez.entity;
+
+/**
+ * Tipos de tarea diferida de un pedido
+ */
+public enum OutboxTaskType {
+    CONSUMIR_STOCK, // Descuento de insumos al crear el pedido
+    RESTAURAR_STOCK, // Devolución de insumos al cancelar
+    OCUPAR_MESA // Marcar la mesa como ocupada por el pedido
+}
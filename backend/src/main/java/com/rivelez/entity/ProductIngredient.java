@@ -0,0 +1,38 @@
+package com.rivelez.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad Ingrediente de la receta de un producto (cuánto consume de cada
+ * item de stock)
+ */
+@Entity
+@Table(name = "product_ingredients", uniqueConstraints = @UniqueConstraint(columnNames = { "product_id",
+        "stock_item_id" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductIngredient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product producto;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_item_id", nullable = false)
+    private StockItem stockItem;
+
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Column(nullable = false)
+    private Integer cantidad; // Unidades de stock por unidad de producto
+}
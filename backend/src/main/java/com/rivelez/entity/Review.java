@@ -15,7 +15,12 @@ import java.time.LocalDateTime;
  * Entidad para reseñas de clientes
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        // Búsqueda paginada por (fecha_creacion, id) con y sin filtros
+        @Index(name = "idx_reviews_fecha_id", columnList = "fecha_creacion, id"),
+        @Index(name = "idx_reviews_calificacion_fecha_id", columnList = "calificacion, fecha_creacion, id"),
+        @Index(name = "idx_reviews_mesa_fecha_id", columnList = "numero_mesa, fecha_creacion, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
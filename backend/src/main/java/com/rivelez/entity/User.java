@@ -53,6 +53,13 @@ public class User implements UserDetails {
     @Column(name = "fecha_creacion")
     private LocalDateTime fechaCreacion;
 
+    // Último cambio del usuario: los tokens emitidos antes dejan de valer
+    // (UserRevocationRegistry). Lo escribe solo la base, con su reloj, tanto
+    // en los cambios de la aplicación como en las ediciones manuales.
+    @Column(name = "fecha_actualizacion", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime fechaActualizacion;
+
     @PrePersist
     protected void onCreate() {
         fechaCreacion = LocalDateTime.now();
@@ -0,0 +1,28 @@
+package com.rivelez.event;
+
+import com.rivelez.dto.OrderDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por OrderService cuando cambia un pedido.
+ * Los listeners lo reciben después del commit de la transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderChangedEvent {
+
+    /**
+     * Tipo de cambio, usado para decidir a qué pantallas notificar
+     */
+    public enum Tipo {
+        CREADO, // Pedido nuevo
+        ITEMS_AGREGADOS, // Se agregaron items
+        ESTADO, // Cambio de estado (cocina)
+        PAGO, // Solicitud de pago o pago procesado
+        ELIMINADO // Descartado definitivamente
+    }
+
+    private final OrderDTO pedido;
+    private final Tipo tipo;
+}
@@ -0,0 +1,15 @@
+package com.rivelez.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado al encolar una tarea diferida de un pedido. El listener
+ * la ejecuta en segundo plano después del commit.
+ */
+@Getter
+@AllArgsConstructor
+public class OutboxTaskCreatedEvent {
+
+    private final Long tareaId;
+}
@@ -0,0 +1,16 @@
+package com.rivelez.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por ProductService cuando se crea, modifica o elimina un
+ * producto. Los listeners lo reciben después del commit de la transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private final Long productoId;
+    private final boolean eliminado;
+}
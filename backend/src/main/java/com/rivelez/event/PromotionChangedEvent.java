@@ -0,0 +1,17 @@
+package com.rivelez.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por PromotionService cuando se crea, activa/desactiva o
+ * elimina una promoción. Los listeners lo reciben después del commit de la
+ * transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class PromotionChangedEvent {
+
+    private final Long promocionId;
+    private final boolean eliminada;
+}
@@ -0,0 +1,19 @@
+package com.rivelez.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Evento publicado por SalesRollupService cuando cambian los resúmenes de
+ * ventas de un rango de días (ambos inclusive). Los listeners lo reciben
+ * después del commit de la transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class SalesRollupChangedEvent {
+
+    private final LocalDate desde;
+    private final LocalDate hasta;
+}
@@ -0,0 +1,16 @@
+package com.rivelez.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por StockService cuando se crea un item de stock. Los
+ * listeners lo reciben después del commit de la transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class StockItemCreatedEvent {
+
+    private final Long stockItemId;
+    private final String nombre;
+}
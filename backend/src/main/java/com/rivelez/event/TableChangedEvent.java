@@ -0,0 +1,17 @@
+package com.rivelez.event;
+
+import com.rivelez.dto.TableDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado cuando cambia el estado de una mesa.
+ * Los listeners lo reciben después del commit de la transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class TableChangedEvent {
+
+    private final TableDTO mesa;
+    private final boolean eliminada;
+}
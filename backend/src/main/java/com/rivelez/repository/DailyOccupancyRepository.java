@@ -0,0 +1,23 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.DailyOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio de la ocupación diaria de mesas
+ */
+@Repository
+public interface DailyOccupancyRepository extends JpaRepository<DailyOccupancy, LocalDate> {
+
+    List<DailyOccupancy> findByFechaBetweenOrderByFecha(LocalDate desde, LocalDate hasta);
+
+    // Fila [minutosOcupados, minutosMesa] del rango (null si no hay días)
+    @Query("SELECT SUM(d.minutosOcupados), SUM(d.minutosMesa) FROM DailyOccupancy d "
+            + "WHERE d.fecha BETWEEN :desde AND :hasta")
+    List<Object[]> sumBetween(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,20 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.DailyPaymentMethod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio del resumen diario de pedidos por método de pago
+ */
+@Repository
+public interface DailyPaymentMethodRepository extends JpaRepository<DailyPaymentMethod, DailyPaymentMethod.Clave> {
+
+    // Filas [método de pago, pedidos]
+    @Query("SELECT d.metodoPago, SUM(d.pedidos) FROM DailyPaymentMethod d WHERE d.fecha BETWEEN :desde AND :hasta GROUP BY d.metodoPago HAVING SUM(d.pedidos) > 0")
+    List<Object[]> sumByMetodoPagoBetween(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,21 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.DailyProductSales;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio del resumen diario de ventas por producto
+ */
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, DailyProductSales.Clave> {
+
+    // Filas [producto, unidades, ingresos], más vendidos primero
+    @Query("SELECT d.nombreProducto, SUM(d.cantidad), SUM(d.ingresos) FROM DailyProductSales d WHERE d.fecha BETWEEN :desde AND :hasta GROUP BY d.nombreProducto HAVING SUM(d.cantidad) > 0 ORDER BY SUM(d.cantidad) DESC, d.nombreProducto")
+    List<Object[]> findTopSoldBetween(LocalDate desde, LocalDate hasta, Limit limite);
+}
@@ -0,0 +1,22 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio del resumen diario de ventas
+ */
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+
+    List<DailySales> findByFechaBetweenOrderByFecha(LocalDate desde, LocalDate hasta);
+
+    // Fila [pedidos, ventas] del rango (null si no hay días)
+    @Query("SELECT SUM(d.pedidos), SUM(d.ventas) FROM DailySales d WHERE d.fecha BETWEEN :desde AND :hasta")
+    List<Object[]> sumBetween(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,20 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.HourlySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio del resumen de ventas por hora
+ */
+@Repository
+public interface HourlySalesRepository extends JpaRepository<HourlySales, HourlySales.Clave> {
+
+    // Filas [fecha, hora, pedidos, ventas] del rango
+    @Query("SELECT h.fecha, h.hora, h.pedidos, h.ventas FROM HourlySales h WHERE h.fecha BETWEEN :desde AND :hasta")
+    List<Object[]> findRowsBetween(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,30 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio para las claves de idempotencia
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByClave(String clave);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.clave = :clave AND r.estadoHttp IS NULL")
+    int deletePendingByClave(String clave);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.fecha < :limite OR (r.estadoHttp IS NULL AND r.fecha < :limitePendientes)")
+    int deleteExpired(LocalDateTime limite, LocalDateTime limitePendientes);
+}
@@ -2,40 +2,67 @@ package com.rivelez.repository;
 
 import com.rivelez.entity.CustomerOrder;
 import com.rivelez.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
- * Repositorio para operaciones CRUD de pedidos
+ * Repositorio para operaciones CRUD de pedidos.
+ * Las consultas que terminan en OrderDTO traen items y productos en la misma
+ * sentencia para no disparar una consulta por item.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<CustomerOrder, Long> {
+public interface OrderRepository extends JpaRepository<CustomerOrder, Long>, JpaSpecificationExecutor<CustomerOrder> {
 
+    String ITEMS = "items";
+    String ITEMS_PRODUCTO = "items.producto";
+
+    @Override
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
+    List<CustomerOrder> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
+    Optional<CustomerOrder> findById(Long id);
+
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
     Optional<CustomerOrder> findByNumeroPedido(String numeroPedido);
 
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
     List<CustomerOrder> findByEstado(OrderStatus estado);
 
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
     List<CustomerOrder> findByNumeroMesa(Integer numeroMesa);
 
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
+    List<CustomerOrder> findByIdIn(Collection<Long> ids);
+
     List<CustomerOrder> findByNumeroMesaAndEstadoNot(Integer numeroMesa, OrderStatus estado);
 
     List<CustomerOrder> findByEstadoIn(List<OrderStatus> estados);
 
-    List<CustomerOrder> findByFechaCreacionBetween(LocalDateTime inicio, LocalDateTime fin);
-
-    Optional<CustomerOrder> findTopByOrderByIdDesc();
+    Optional<CustomerOrder> findTopByNumeroPedidoStartingWithOrderByIdDesc(String prefijo);
 
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
     @Query("SELECT o FROM CustomerOrder o WHERE o.estado NOT IN ('PAGADO') ORDER BY o.fechaCreacion DESC")
     List<CustomerOrder> findActiveOrders();
 
+    @EntityGraph(attributePaths = { ITEMS, ITEMS_PRODUCTO })
     @Query("SELECT o FROM CustomerOrder o WHERE o.estado IN ('NUEVO', 'RECIBIDO', 'EN_PREPARACION', 'RETRASADO', 'LISTO', 'CANCELADO') ORDER BY o.fechaCreacion ASC")
     List<CustomerOrder> findPendingOrders();
 
     @Query("SELECT COUNT(o) FROM CustomerOrder o WHERE o.estado = 'PAGADO' AND o.fechaCreacion >= :desde")
     Long countCompletedOrdersSince(LocalDateTime desde);
+
+    // Reporte: filas [número, mesa, total, método de pago, fecha, cantidad de items] de los últimos pagados
+    @Query("SELECT o.numeroPedido, o.numeroMesa, o.total, o.metodoPago, o.fechaCreacion, SIZE(o.items) FROM CustomerOrder o WHERE o.estado = 'PAGADO' ORDER BY o.fechaCreacion DESC, o.id DESC")
+    List<Object[]> findLatestPaid(Limit limite);
 }
@@ -0,0 +1,62 @@
+package com.rivelez.repository;
+
+import com.rivelez.dto.OrderSearchRequest;
+import com.rivelez.entity.CustomerOrder;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especificaciones para la búsqueda de pedidos
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Filtros de la búsqueda más la condición de keyset: solo pedidos
+     * posteriores al último de la página anterior en el orden
+     * (fechaCreacion DESC, id DESC)
+     */
+    public static Specification<CustomerOrder> search(OrderSearchRequest filtros,
+            LocalDateTime cursorFecha, Long cursorId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (filtros.getDesde() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fechaCreacion"), filtros.getDesde()));
+            }
+            if (filtros.getHasta() != null) {
+                predicados.add(cb.lessThan(root.get("fechaCreacion"), filtros.getHasta()));
+            }
+            if (filtros.getEstado() != null && !filtros.getEstado().isEmpty()) {
+                predicados.add(root.get("estado").in(filtros.getEstado()));
+            }
+            if (filtros.getMesa() != null) {
+                predicados.add(cb.equal(root.get("numeroMesa"), filtros.getMesa()));
+            }
+            if (filtros.getMetodoPago() != null) {
+                predicados.add(cb.equal(root.get("metodoPago"), filtros.getMetodoPago()));
+            }
+            if (filtros.getTotalMin() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("total"), filtros.getTotalMin()));
+            }
+            if (filtros.getTotalMax() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("total"), filtros.getTotalMax()));
+            }
+
+            if (cursorFecha != null) {
+                predicados.add(cb.or(
+                        cb.lessThan(root.get("fechaCreacion"), cursorFecha),
+                        cb.and(cb.equal(root.get("fechaCreacion"), cursorFecha),
+                                cb.lessThan(root.get("id"), cursorId))));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+}
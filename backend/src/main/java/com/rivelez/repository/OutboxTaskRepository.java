@@ -0,0 +1,45 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.OutboxTask;
+import com.rivelez.entity.OutboxTaskStatus;
+import com.rivelez.entity.OutboxTaskType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para las tareas diferidas de pedidos
+ */
+@Repository
+public interface OutboxTaskRepository extends JpaRepository<OutboxTask, Long> {
+
+    Optional<OutboxTask> findFirstByPedidoIdAndTipoOrderByIdDesc(Long pedidoId, OutboxTaskType tipo);
+
+    @Query("SELECT t.id FROM OutboxTask t WHERE t.estado = 'PENDIENTE' AND t.proximoIntento <= :ahora ORDER BY t.id")
+    List<Long> findDueIds(LocalDateTime ahora, Limit limit);
+
+    @Query("SELECT t FROM OutboxTask t WHERE t.estado = 'FALLIDA' OR (t.estado = 'PENDIENTE' AND t.intentos > 0) ORDER BY t.id DESC")
+    List<OutboxTask> findProblems(Limit limit);
+
+    /**
+     * Toma la tarea para ejecutarla: solo una transacción logra pasarla de
+     * PENDIENTE a COMPLETADA; si la ejecución falla, el rollback la devuelve
+     */
+    @Modifying
+    @Query("UPDATE OutboxTask t SET t.estado = 'COMPLETADA' WHERE t.id = :id AND t.estado = 'PENDIENTE'")
+    int claim(Long id);
+
+    @Modifying
+    @Query("DELETE FROM OutboxTask t WHERE t.id = :id AND t.estado <> 'COMPLETADA'")
+    int deleteIfNotCompleted(Long id);
+
+    @Modifying
+    @Query("DELETE FROM OutboxTask t WHERE t.estado = :estado AND t.fecha < :limite")
+    int deleteByEstadoAndFechaBefore(OutboxTaskStatus estado, LocalDateTime limite);
+}
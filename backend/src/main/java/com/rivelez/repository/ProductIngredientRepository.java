@@ -0,0 +1,32 @@
+package com.rivelez.repository;
+
+import com.rivelez.entity.ProductIngredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para las recetas de productos
+ */
+@Repository
+public interface ProductIngredientRepository extends JpaRepository<ProductIngredient, Long> {
+
+    List<ProductIngredient> findByProductoId(Long productoId);
+
+    @Modifying
+    @Query("DELETE FROM ProductIngredient r WHERE r.producto.id = :productoId")
+    void deleteByProductoId(Long productoId);
+
+    // Filas [productoId, stockItemId, cantidad] para compilar el índice en memoria
+    @Query("SELECT r.producto.id, r.stockItem.id, r.cantidad FROM ProductIngredient r ORDER BY r.producto.id, r.stockItem.id")
+    List<Object[]> findAllCompact();
+
+    @Query("SELECT r.producto.id, r.stockItem.id, r.cantidad FROM ProductIngredient r WHERE r.producto.id = :productoId ORDER BY r.stockItem.id")
+    List<Object[]> findCompactByProductoId(Long productoId);
+
+    @Query("SELECT DISTINCT r.producto.id FROM ProductIngredient r")
+    List<Long> findProductIdsWithRecipe();
+}
@@ -19,7 +19,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByCategoriaAndDisponible(ProductCategory categoria, boolean disponible);
 
-    List<Product> findByNombreContainingIgnoreCase(String nombre);
-
     List<Product> findAllByOrderByCategoriaAscNombreAsc();
+
+    List<Product> findByNombre(String nombre);
 }
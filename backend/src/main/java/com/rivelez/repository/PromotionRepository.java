@@ -1,8 +1,8 @@
 package com.rivelez.repository;
 
 import com.rivelez.entity.Promotion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,9 +11,9 @@ import java.util.List;
 @Repository
 public interface PromotionRepository extends JpaRepository<Promotion, Long> {
 
-    // Buscar promociones activas en este momento
-    @Query("SELECT p FROM Promotion p WHERE p.activa = true AND p.fechaInicio <= :now AND p.fechaFin >= :now")
-    List<Promotion> findActivePromotions(LocalDateTime now);
-
     List<Promotion> findByActivaTrue();
+
+    // Promociones activadas que todavía no vencieron (vigentes o futuras), con sus productos
+    @EntityGraph(attributePaths = "productos")
+    List<Promotion> findByActivaTrueAndFechaFinAfter(LocalDateTime fecha);
 }
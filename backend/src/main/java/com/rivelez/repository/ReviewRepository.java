@@ -1,18 +1,32 @@
 package com.rivelez.repository;
 
 import com.rivelez.entity.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecificationExecutor<Review> {
     List<Review> findByNumeroMesaOrderByFechaCreacionDesc(Integer numeroMesa);
 
     List<Review> findAllByOrderByFechaCreacionDesc();
 
-    List<Review> findTop10ByOrderByFechaCreacionDesc();
+    List<Review> findByIdLessThanEqualOrderByFechaCreacionDescIdDesc(Long id, Limit limite);
 
     boolean existsByNumeroPedido(String numeroPedido);
+
+    @Query("SELECT MAX(r.id) FROM Review r")
+    Long findMaxId();
+
+    // Filas [numeroMesa, calificacion, cantidad] de las reseñas hasta el id dado
+    @Query("SELECT r.numeroMesa, r.calificacion, COUNT(r) FROM Review r WHERE r.id <= :hastaId GROUP BY r.numeroMesa, r.calificacion")
+    List<Object[]> countByMesaAndCalificacion(Long hastaId);
+
+    // Filas [id, fechaCreacion, calificacion, numeroMesa, comentario] con comentario, para el índice de texto
+    @Query("SELECT r.id, r.fechaCreacion, r.calificacion, r.numeroMesa, r.comentario FROM Review r WHERE r.id <= :hastaId AND r.comentario IS NOT NULL")
+    List<Object[]> findCommentRows(Long hastaId);
 }
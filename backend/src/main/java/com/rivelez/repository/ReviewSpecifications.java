@@ -0,0 +1,50 @@
+package com.rivelez.repository;
+
+import com.rivelez.dto.ReviewSearchRequest;
+import com.rivelez.entity.Review;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Especificaciones para la búsqueda de reseñas
+ */
+public final class ReviewSpecifications {
+
+    private ReviewSpecifications() {
+    }
+
+    /**
+     * Filtros de la búsqueda (sin el texto, que resuelve el índice en
+     * memoria) más la condición de keyset en el orden (fechaCreacion DESC,
+     * id DESC)
+     */
+    public static Specification<Review> search(ReviewSearchRequest filtros,
+            LocalDateTime cursorFecha, Long cursorId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (filtros.getCalificacionMin() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("calificacion"), filtros.getCalificacionMin()));
+            }
+            if (filtros.getCalificacionMax() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("calificacion"), filtros.getCalificacionMax()));
+            }
+            if (filtros.getMesa() != null) {
+                predicados.add(cb.equal(root.get("numeroMesa"), filtros.getMesa()));
+            }
+
+            if (cursorFecha != null) {
+                predicados.add(cb.or(
+                        cb.lessThan(root.get("fechaCreacion"), cursorFecha),
+                        cb.and(cb.equal(root.get("fechaCreacion"), cursorFecha),
+                                cb.lessThan(root.get("id"), cursorId))));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,8 @@ public interface StockItemRepository extends JpaRepository<StockItem, Long> {
 
     Optional<StockItem> findByNombre(String nombre);
 
+    List<StockItem> findByNombreIn(Collection<String> nombres);
+
     boolean existsByNombre(String nombre);
 
     @Query("SELECT s FROM StockItem s WHERE s.cantidadActual <= s.cantidadMinima")
@@ -2,8 +2,10 @@ package com.rivelez.repository;
 
 import com.rivelez.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,4 +17,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    /**
+     * [id, activo, segundo epoch de fecha_actualizacion] de todos los
+     * usuarios. UNIX_TIMESTAMP convierte con la misma zona con que la base
+     * escribió la columna.
+     */
+    @Query(value = "SELECT id, activo, FLOOR(UNIX_TIMESTAMP(fecha_actualizacion)) FROM users", nativeQuery = true)
+    List<Object[]> findRevocationRows();
 }
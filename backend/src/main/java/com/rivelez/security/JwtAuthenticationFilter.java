@@ -1,6 +1,5 @@
 package com.rivelez.security;
 
-import com.rivelez.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,14 +15,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 /**
- * Filtro que intercepta cada request y valida el token JWT
+ * Filtro que intercepta cada request y valida el token JWT. El usuario se
+ * arma con los claims del token (JwtUserResolver), sin consultar la base.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final JwtUserResolver jwtUserResolver;
 
     @Override
     protected void doFilterInternal(
@@ -34,7 +32,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         // Si no hay header de autorización o no empieza con "Bearer ", continuar
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -45,25 +42,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extraer el token (quitar "Bearer ")
         jwt = authHeader.substring(7);
 
-        try {
-            username = jwtService.extractUsername(jwt);
-
-            // Si tenemos username y no hay autenticación en el contexto
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userRepository.findByUsername(username)
-                        .orElse(null);
-
-                if (userDetails != null && jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+        // Si no hay autenticación en el contexto, armarla desde el token
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser user = jwtUserResolver.resolve(jwt);
+
+            // Token inválido, vencido o revocado: continuar sin autenticación
+            if (user != null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        user,
+                        null,
+                        user.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
-        } catch (Exception e) {
-            // Token inválido, continuar sin autenticación
         }
 
         filterChain.doFilter(request, response);
@@ -1,30 +1,94 @@
 package com.rivelez.security;
 
+import com.rivelez.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 /**
- * Servicio para generación y validación de tokens JWT
+ * Servicio para generación y validación de tokens JWT.
+ *
+ * La clave y el parser se arman una sola vez. Los claims de un token ya
+ * verificado quedan en un cache acotado (por SHA-256 del token) hasta que
+ * el token vence, así las pantallas que consultan seguido no recalculan la
+ * firma en cada request.
+ *
+ * Los tokens de usuarios llevan id, rol, nombre y estado como claims, así
+ * la autenticación de cada request no consulta la base (JwtUserResolver).
  */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    public static final String CLAIM_UID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_NOMBRE = "nombre";
+    public static final String CLAIM_ACTIVO = "activo";
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    // Secret key de 74 caracteres (592 bits) - suficiente para HMAC-SHA256
+    private static final String CLAVE_FIRMA = "RiVelezBackend2024SecretKeyParaElSistemaDeGestionSeguro123456789ABCDEFGHIJ";
+
+    private final SecretKey signInKey = Keys.hmacShaKeyFor(CLAVE_FIRMA.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parser().verifyWith(signInKey).build();
+
+    private final long jwtExpiration;
+    private final int maxEntradas;
+
+    // SHA-256 del token -> claims verificados, desalojando el menos usado al superar maxEntradas
+    private final Map<String, Claims> verificados = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+            return size() > maxEntradas;
+        }
+    };
+
+    public JwtService(@Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.claims-cache-size:10000}") int maxEntradas) {
+        this.jwtExpiration = jwtExpiration;
+        this.maxEntradas = maxEntradas;
+    }
+
+    /**
+     * Verifica firma y vencimiento del token y devuelve sus claims. Lanza
+     * JwtException si el token no es válido.
+     */
+    public Claims verify(String token) {
+        String clave = digest(token);
+        synchronized (verificados) {
+            Claims claims = verificados.get(clave);
+            if (claims != null) {
+                if (claims.getExpiration().after(new Date())) {
+                    return claims;
+                }
+                verificados.remove(clave);
+            }
+        }
+
+        // El parser rechaza firmas inválidas y tokens vencidos
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token sin vencimiento");
+        }
+        synchronized (verificados) {
+            verificados.put(clave, claims);
+        }
+        return claims;
+    }
 
     /**
      * Extrae el username del token
@@ -37,15 +101,21 @@ public class JwtService {
      * Extrae un claim específico del token
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token));
     }
 
     /**
-     * Genera un token para el usuario
+     * Genera un token para el usuario, con sus datos como claims
      */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_UID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_NOMBRE, user.getNombre());
+            claims.put(CLAIM_ACTIVO, user.isActivo());
+        }
+        return generateToken(claims, userDetails);
     }
 
     /**
@@ -57,7 +127,7 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
@@ -65,42 +135,19 @@ public class JwtService {
      * Valida si el token es válido para el usuario
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    /**
-     * Verifica si el token está expirado
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extrae la fecha de expiración del token
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        try {
+            return userDetails.getUsername().equals(verify(token).getSubject());
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
-    /**
-     * Extrae todos los claims del token
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    /**
-     * Obtiene la clave de firma
-     */
-    private SecretKey getSignInKey() {
-        // Secret key de 74 caracteres (592 bits) - suficiente para HMAC-SHA256
-        String hardcodedSecret = "RiVelezBackend2024SecretKeyParaElSistemaDeGestionSeguro123456789ABCDEFGHIJ";
-        byte[] keyBytes = hardcodedSecret.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
@@ -0,0 +1,96 @@
+package com.rivelez.security;
+
+import com.rivelez.entity.User;
+import com.rivelez.entity.UserRole;
+import com.rivelez.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Arma el usuario autenticado a partir de un token (filtro HTTP y hub
+ * STOMP). Con los claims del token alcanza; solo los tokens emitidos antes
+ * de que llevaran esos claims se resuelven contra la base.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtUserResolver {
+
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final UserRevocationRegistry revocationRegistry;
+
+    /**
+     * Recarga las revocaciones desde la base: usuarios desactivados,
+     * eliminados y modificados (fecha_actualizacion). Corre al arrancar y
+     * cada auth.revocation.refresh-ms, así un cambio hecho en la base o en
+     * otra instancia se aplica a los tokens vigentes sin esperar que venzan.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-ms:15000}",
+            initialDelayString = "${auth.revocation.refresh-ms:15000}")
+    public void refreshRevocations() {
+        Map<Long, Long> revocadosHasta = new HashMap<>();
+        long maxId = 0;
+        int inactivos = 0;
+        for (Object[] fila : userRepository.findRevocationRows()) {
+            Long id = ((Number) fila[0]).longValue();
+            maxId = Math.max(maxId, id);
+            if (!(Boolean) fila[1]) {
+                revocadosHasta.put(id, UserRevocationRegistry.TODOS);
+                inactivos++;
+            } else if (fila[2] != null) {
+                revocadosHasta.put(id, ((Number) fila[2]).longValue());
+            } else {
+                revocadosHasta.put(id, Long.MIN_VALUE);
+            }
+        }
+        boolean primeraCarga = !revocationRegistry.isLoaded();
+        revocationRegistry.replace(revocadosHasta, maxId);
+        if (primeraCarga) {
+            log.info("Revocaciones cargadas: {} usuarios, {} desactivados", revocadosHasta.size(), inactivos);
+        }
+    }
+
+    /**
+     * Usuario del token, o null si el token es inválido, está vencido o fue
+     * revocado
+     */
+    public AuthenticatedUser resolve(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.verify(token);
+        } catch (Exception e) {
+            return null;
+        }
+
+        Long id = claims.get(JwtService.CLAIM_UID, Long.class);
+        if (id == null || !revocationRegistry.isKnown(id)) {
+            return resolveLegacy(claims.getSubject());
+        }
+        if (!Boolean.TRUE.equals(claims.get(JwtService.CLAIM_ACTIVO, Boolean.class))
+                || revocationRegistry.isRevoked(id, claims.getIssuedAt())) {
+            return null;
+        }
+        return new AuthenticatedUser(id, claims.getSubject(), claims.get(JwtService.CLAIM_NOMBRE, String.class),
+                UserRole.valueOf(claims.get(JwtService.CLAIM_ROLE, String.class)));
+    }
+
+    // Tokens sin claims de usuario, o de usuarios que la última recarga de
+    // revocaciones no cubre: se resuelven como antes, contra la base
+    private AuthenticatedUser resolveLegacy(String username) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null || !user.isActivo()) {
+            return null;
+        }
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getNombre(), user.getRole());
+    }
+}
@@ -0,0 +1,75 @@
+package com.rivelez.security;
+
+import com.rivelez.service.StaffHubService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Autentica las conexiones STOMP con el token JWT (header nativo
+ * "Authorization" del frame CONNECT) y restringe los tópicos por rol
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final Map<String, Set<String>> ROLES_POR_TOPICO = Map.of(
+            StaffHubService.TOPIC_COCINA, Set.of("ROLE_GERENTE", "ROLE_COCINERO", "ROLE_CAJERO"),
+            StaffHubService.TOPIC_SALON, Set.of("ROLE_GERENTE", "ROLE_CAJERO"),
+            StaffHubService.TOPIC_PAGOS, Set.of("ROLE_GERENTE", "ROLE_CAJERO"));
+
+    private final JwtUserResolver jwtUserResolver;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(accessor.getUser(), accessor.getDestination());
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Token requerido");
+        }
+
+        AuthenticatedUser user = jwtUserResolver.resolve(authHeader.substring(7));
+        if (user == null) {
+            throw new AccessDeniedException("Token inválido");
+        }
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    private void checkSubscription(Object user, String destination) {
+        Set<String> rolesPermitidos = ROLES_POR_TOPICO.get(destination);
+        if (rolesPermitidos == null || !(user instanceof Authentication authentication)) {
+            throw new AccessDeniedException("Suscripción no permitida: " + destination);
+        }
+
+        boolean autorizado = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(rolesPermitidos::contains);
+        if (!autorizado) {
+            throw new AccessDeniedException("Suscripción no permitida: " + destination);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.rivelez.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Usuarios cuyos tokens ya emitidos dejaron de valer, por id. Guarda desde
+ * qué segundo de emisión vuelven a valer: los desactivados rechazan todo; un
+ * usuario modificado (rol, nombre, contraseña) rechaza los tokens emitidos
+ * antes del segundo de su fecha_actualizacion y tiene que volver a ingresar.
+ * El iat del token está en segundos, así que un token del mismo segundo que
+ * el cambio se acepta (es el caso del token que devuelve el registro). Los
+ * ids que ya no existen (usuarios eliminados) rechazan todo.
+ *
+ * JwtUserResolver lo recarga completo desde la base periódicamente; la
+ * tabla de usuarios es solo el personal, así que el mapa es chico.
+ */
+@Component
+public class UserRevocationRegistry {
+
+    public static final long TODOS = Long.MAX_VALUE;
+
+    private static final class Estado {
+
+        final Map<Long, Long> revocadosHasta;
+        final long maxId;
+
+        Estado(Map<Long, Long> revocadosHasta, long maxId) {
+            this.revocadosHasta = revocadosHasta;
+            this.maxId = maxId;
+        }
+    }
+
+    private volatile Estado estado;
+
+    /**
+     * Reemplaza el estado con lo leído de la base: id de usuario -> primer
+     * segundo de emisión aceptado (TODOS si está desactivado)
+     */
+    public void replace(Map<Long, Long> revocadosHasta, long maxId) {
+        estado = new Estado(Map.copyOf(revocadosHasta), maxId);
+    }
+
+    /**
+     * Si todavía no se cargó desde la base
+     */
+    public boolean isLoaded() {
+        return estado != null;
+    }
+
+    /**
+     * Si el id estaba en el rango de la última recarga. Los ids mayores son
+     * de usuarios creados después (o del último, si se eliminó) y hay que
+     * consultarlos en la base.
+     */
+    public boolean isKnown(Long userId) {
+        Estado actual = estado;
+        return actual != null && userId <= actual.maxId;
+    }
+
+    /**
+     * Para ids conocidos (isKnown): si el token emitido en esa fecha ya no vale
+     */
+    public boolean isRevoked(Long userId, Date emitido) {
+        Estado actual = estado;
+        Long hasta = actual.revocadosHasta.get(userId);
+        if (hasta == null) {
+            // El usuario fue eliminado
+            return true;
+        }
+        return emitido == null || emitido.getTime() / 1000 < hasta;
+    }
+}
@@ -1,34 +1,36 @@
 package com.rivelez.service;
 
+import com.rivelez.dto.AuthMetricsDTO;
 import com.rivelez.dto.AuthResponse;
 import com.rivelez.dto.LoginRequest;
 import com.rivelez.dto.RegisterRequest;
 import com.rivelez.dto.UserDTO;
 import com.rivelez.entity.User;
 import com.rivelez.repository.UserRepository;
+import com.rivelez.security.AuthenticatedUser;
 import com.rivelez.security.JwtService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
- * Servicio de autenticación
+ * Servicio de autenticación. BCrypt corre en el pool acotado de
+ * PasswordHashingService y cada intento pasa antes por LoginRateLimiter.
  */
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
         private final UserRepository userRepository;
-        private final PasswordEncoder passwordEncoder;
+        private final PasswordHashingService passwordHashingService;
+        private final LoginRateLimiter loginRateLimiter;
         private final JwtService jwtService;
-        private final AuthenticationManager authenticationManager;
 
         /**
          * Registra un nuevo usuario
          */
-        public AuthResponse register(RegisterRequest request) {
+        public AuthResponse register(RegisterRequest request, String ip) {
+                checkRate(null, ip);
+
                 // Verificar si el usuario ya existe
                 if (userRepository.existsByUsername(request.getUsername())) {
                         return AuthResponse.builder()
@@ -39,7 +41,7 @@ public class AuthService {
                 // Crear el usuario
                 User user = User.builder()
                                 .username(request.getUsername())
-                                .password(passwordEncoder.encode(request.getPassword()))
+                                .password(passwordHashingService.encode(request.getPassword()))
                                 .nombre(request.getNombre())
                                 .role(request.getRole())
                                 .activo(true)
@@ -62,7 +64,9 @@ public class AuthService {
         /**
          * Autentica un usuario existente
          */
-        public AuthResponse login(LoginRequest request) {
+        public AuthResponse login(LoginRequest request, String ip) {
+                checkRate(request.getUsername(), ip);
+
                 try {
                         // Verificar si el usuario existe
                         var optUser = userRepository.findByUsername(request.getUsername());
@@ -73,7 +77,8 @@ public class AuthService {
                         User dbUser = optUser.get();
 
                         // Verificar password
-                        boolean passwordMatches = passwordEncoder.matches(request.getPassword(), dbUser.getPassword());
+                        boolean passwordMatches = passwordHashingService.matches(request.getPassword(),
+                                        dbUser.getPassword());
 
                         if (!passwordMatches) {
                                 return AuthResponse.builder().message("Contraseña incorrecta").build();
@@ -83,12 +88,6 @@ public class AuthService {
                                 return AuthResponse.builder().message("Usuario desactivado").build();
                         }
 
-                        // Autenticar con Spring Security
-                        authenticationManager.authenticate(
-                                        new UsernamePasswordAuthenticationToken(
-                                                        request.getUsername(),
-                                                        request.getPassword()));
-
                         String token = jwtService.generateToken(dbUser);
 
                         return AuthResponse.builder()
@@ -98,6 +97,8 @@ public class AuthService {
                                         .role(dbUser.getRole())
                                         .message("Login exitoso")
                                         .build();
+                } catch (PasswordHashingService.ServidorOcupadoException e) {
+                        throw e;
                 } catch (Exception e) {
                         return AuthResponse.builder()
                                         .message("Credenciales inválidas")
@@ -121,4 +122,35 @@ public class AuthService {
                                 .fechaCreacion(user.getFechaCreacion())
                                 .build();
         }
+
+        /**
+         * Información del usuario autenticado tal como viene en el token,
+         * sin consultar la base
+         */
+        public UserDTO getCurrentUser(AuthenticatedUser user) {
+                return UserDTO.builder()
+                                .id(user.getId())
+                                .username(user.getUsername())
+                                .nombre(user.getNombre())
+                                .role(user.getRole())
+                                .activo(true)
+                                .build();
+        }
+
+        /**
+         * Estado del pool de hash y de la admisión de logins
+         */
+        public AuthMetricsDTO getMetrics() {
+                return AuthMetricsDTO.builder()
+                                .hash(passwordHashingService.getMetrics())
+                                .ingresos(loginRateLimiter.getMetrics())
+                                .build();
+        }
+
+        private void checkRate(String username, String ip) {
+                long espera = loginRateLimiter.tryAcquire(username, ip);
+                if (espera > 0) {
+                        throw new LoginRateLimiter.DemasiadosIntentosException(espera);
+                }
+        }
 }
@@ -0,0 +1,223 @@
+package com.rivelez.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Exportación de pedidos, items y movimientos de stock para contabilidad.
+ * Las filas se leen con un cursor de solo avance (fetch size acotado) y se
+ * escriben a medida que llegan, así la memoria no depende del rango.
+ *
+ * En MySQL el fetch size solo se respeta con useCursorFetch=true, que además
+ * pasa todas las sentencias de la conexión a prepared statements del
+ * servidor. Para no cambiar eso en el pool de la aplicación, cada
+ * exportación abre su propia conexión (fuera del pool) con useCursorFetch;
+ * las exportaciones concurrentes las acota el executor de MVC.
+ */
+@Service
+public class ExportService {
+
+    private static final int BUFFER_ESCRITURA = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ExportService(DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+            @Value("${export.fetch-size:500}") int fetchSize) {
+        DriverManagerDataSource conexionExportacion = new DriverManagerDataSource(
+                withCursorFetch(dataSourceProperties.determineUrl()),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        conexionExportacion.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        this.jdbcTemplate = new JdbcTemplate(conexionExportacion);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Conjuntos exportables. Los rangos filtran por fecha de creación del
+     * pedido (fecha del movimiento para stock), [desde, hasta + 1 día).
+     */
+    public enum Tipo {
+        PEDIDOS("pedidos",
+                "SELECT id, numero_pedido, numero_mesa, personas, estado, subtotal, propina, total, metodo_pago, "
+                        + "fecha_creacion, fecha_actualizacion FROM orders "
+                        + "WHERE fecha_creacion >= ? AND fecha_creacion < ? ORDER BY fecha_creacion, id",
+                "id", "numeroPedido", "numeroMesa", "personas", "estado", "subtotal", "propina", "total",
+                "metodoPago", "fechaCreacion", "fechaActualizacion"),
+        ITEMS("items",
+                "SELECT i.id, i.order_id, o.numero_pedido, i.product_id, i.nombre_producto, i.cantidad, "
+                        + "i.precio_unitario, i.precio_unitario * i.cantidad, i.observaciones, o.estado, o.fecha_creacion "
+                        + "FROM order_items i JOIN orders o ON o.id = i.order_id "
+                        + "WHERE o.fecha_creacion >= ? AND o.fecha_creacion < ? ORDER BY o.fecha_creacion, o.id, i.id",
+                "id", "pedidoId", "numeroPedido", "productoId", "nombreProducto", "cantidad", "precioUnitario",
+                "subtotal", "observaciones", "estadoPedido", "fechaPedido"),
+        MOVIMIENTOS_STOCK("movimientos-stock",
+                "SELECT m.id, m.stock_item_id, s.nombre, s.unidad_medida, m.tipo, m.cantidad, m.motivo, u.username, "
+                        + "m.fecha FROM stock_movements m JOIN stock_items s ON s.id = m.stock_item_id "
+                        + "LEFT JOIN users u ON u.id = m.user_id "
+                        + "WHERE m.fecha >= ? AND m.fecha < ? ORDER BY m.fecha, m.id",
+                "id", "stockItemId", "insumo", "unidadMedida", "tipo", "cantidad", "motivo", "usuario", "fecha");
+
+        private final String ruta;
+        private final String sql;
+        private final String[] columnas;
+
+        Tipo(String ruta, String sql, String... columnas) {
+            this.ruta = ruta;
+            this.sql = sql;
+            this.columnas = columnas;
+        }
+
+        public String getRuta() {
+            return ruta;
+        }
+
+        public static Tipo fromRuta(String ruta) {
+            return Arrays.stream(values())
+                    .filter(t -> t.ruta.equals(ruta))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Tipo de exportación inválido: " + ruta));
+        }
+    }
+
+    public enum Formato {
+        CSV, NDJSON;
+
+        public static Formato fromParam(String formato) {
+            try {
+                return valueOf(formato.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Formato de exportación inválido: " + formato);
+            }
+        }
+    }
+
+    /**
+     * Escribe el conjunto en el formato pedido. CSV lleva encabezado; NDJSON
+     * es un objeto JSON por línea.
+     */
+    public void write(Tipo tipo, Formato formato, LocalDate desde, LocalDate hasta, OutputStream salida)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), BUFFER_ESCRITURA);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(tipo.sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, desde.atStartOfDay());
+                ps.setObject(2, hasta.plusDays(1).atStartOfDay());
+                return ps;
+            }, formato == Formato.CSV ? csv(tipo, writer) : ndjson(tipo, writer));
+        } catch (UncheckedIOException e) {
+            // Típicamente el cliente cortó la descarga
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private ResultSetExtractor<Void> csv(Tipo tipo, Writer writer) {
+        return rs -> {
+            try {
+                writer.write(String.join(",", tipo.columnas));
+                writer.write("\r\n");
+                while (rs.next()) {
+                    for (int i = 0; i < tipo.columnas.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writeCsvField(writer, text(rs.getObject(i + 1)));
+                    }
+                    writer.write("\r\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        };
+    }
+
+    private ResultSetExtractor<Void> ndjson(Tipo tipo, Writer writer) {
+        return rs -> {
+            try {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                while (rs.next()) {
+                    json.writeStartObject();
+                    for (int i = 0; i < tipo.columnas.length; i++) {
+                        json.writeFieldName(tipo.columnas[i]);
+                        Object valor = rs.getObject(i + 1);
+                        if (valor == null) {
+                            json.writeNull();
+                        } else if (valor instanceof BigDecimal decimal) {
+                            json.writeNumber(decimal);
+                        } else if (valor instanceof Number numero) {
+                            json.writeNumber(numero.longValue());
+                        } else {
+                            json.writeString(text(valor));
+                        }
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+                json.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        };
+    }
+
+    private static String withCursorFetch(String url) {
+        if (!url.startsWith("jdbc:mysql:") || url.contains("useCursorFetch=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+    }
+
+    private static String text(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor instanceof Timestamp fecha) {
+            return fecha.toLocalDateTime().toString();
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return valor.toString();
+    }
+
+    // RFC 4180: comillas solo si el campo tiene separadores, comillas o saltos
+    private static void writeCsvField(Writer writer, String valor) throws IOException {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+                && valor.indexOf('\r') < 0) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,190 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.FloorTableDTO;
+import com.rivelez.dto.OrderDTO;
+import com.rivelez.dto.TableDTO;
+import com.rivelez.entity.OrderStatus;
+import com.rivelez.event.OrderChangedEvent;
+import com.rivelez.event.TableChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Modelo en memoria del salón para caja: mesas y pedidos activos. Se carga
+ * una vez al iniciar y después se mantiene con los eventos que publican
+ * OrderService y TableService en cada escritura confirmada, así las
+ * lecturas de /api/cajero/floor no tocan la base.
+ *
+ * Los eventos de dos transacciones sobre el mismo pedido pueden llegar en
+ * cualquier orden: se descarta el que trae un fechaActualizacion anterior al
+ * guardado, y un pedido pagado o eliminado deja una marca por unos minutos
+ * para que un evento atrasado no lo vuelva a mostrar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FloorStateService {
+
+    private static final long VIGENCIA_CIERRE_MS = 5 * 60 * 1000L;
+
+    private final TableService tableService;
+    private final OrderService orderService;
+
+    private final Map<Long, TableDTO> mesas = new ConcurrentHashMap<>();
+    private final Map<Long, OrderDTO> pedidosActivos = new ConcurrentHashMap<>();
+    // Pedidos cerrados mientras se hacía la carga inicial, para no revivirlos
+    private final Set<Long> cerradosDuranteCarga = ConcurrentHashMap.newKeySet();
+    // Pedidos pagados o eliminados hace poco, con el fechaActualizacion del cierre
+    private final Map<Long, Cierre> cerrados = new ConcurrentHashMap<>();
+    private volatile boolean cargado;
+    // Serializa los armados del plano sin fijar hilos virtuales
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Vista armada en cada cambio; las lecturas solo devuelven la referencia
+    private volatile List<FloorTableDTO> plano = List.of();
+
+    private static final class Cierre {
+
+        private final LocalDateTime fechaPedido;
+        private final long venceMs;
+
+        private Cierre(LocalDateTime fechaPedido, long venceMs) {
+            this.fechaPedido = fechaPedido;
+            this.venceMs = venceMs;
+        }
+    }
+
+    /**
+     * Obtiene el plano actual del salón ordenado por número de mesa
+     */
+    public List<FloorTableDTO> getFloor() {
+        return plano;
+    }
+
+    /**
+     * Carga inicial desde la base. Los eventos que llegan durante la carga
+     * tienen prioridad sobre lo leído.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        tableService.getAllTables().forEach(mesa -> mesas.putIfAbsent(mesa.getId(), mesa));
+        orderService.getActiveOrders().stream()
+                .filter(pedido -> !cerradosDuranteCarga.contains(pedido.getId()))
+                .forEach(pedido -> pedidosActivos.putIfAbsent(pedido.getId(), pedido));
+        cargado = true;
+        cerradosDuranteCarga.clear();
+        rebuild();
+        log.info("Plano del salón cargado: {} mesas, {} pedidos activos", mesas.size(), pedidosActivos.size());
+    }
+
+    /**
+     * Actualiza la mesa una vez confirmada la transacción
+     */
+    @TransactionalEventListener
+    public void onTableChanged(TableChangedEvent event) {
+        TableDTO mesa = event.getMesa();
+        if (event.isEliminada()) {
+            mesas.remove(mesa.getId());
+        } else {
+            mesas.put(mesa.getId(), mesa);
+        }
+        rebuild();
+    }
+
+    /**
+     * Actualiza el pedido una vez confirmada la transacción. Los pedidos
+     * pagados o eliminados dejan de estar activos.
+     */
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDTO pedido = event.getPedido();
+        lock.lock();
+        try {
+            long ahora = System.currentTimeMillis();
+            cerrados.values().removeIf(cierre -> cierre.venceMs < ahora);
+            if (isStale(pedido)) {
+                return;
+            }
+            if (event.getTipo() == OrderChangedEvent.Tipo.ELIMINADO || pedido.getEstado() == OrderStatus.PAGADO) {
+                pedidosActivos.remove(pedido.getId());
+                cerrados.put(pedido.getId(), new Cierre(pedido.getFechaActualizacion(), ahora + VIGENCIA_CIERRE_MS));
+                if (!cargado) {
+                    cerradosDuranteCarga.add(pedido.getId());
+                }
+            } else {
+                pedidosActivos.put(pedido.getId(), pedido);
+            }
+            build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // El evento es anterior a lo que ya se aplicó de ese pedido
+    private boolean isStale(OrderDTO pedido) {
+        LocalDateTime fecha = pedido.getFechaActualizacion();
+        if (fecha == null) {
+            return false;
+        }
+        OrderDTO actual = pedidosActivos.get(pedido.getId());
+        if (actual != null && actual.getFechaActualizacion() != null
+                && fecha.isBefore(actual.getFechaActualizacion())) {
+            return true;
+        }
+        Cierre cierre = cerrados.get(pedido.getId());
+        return cierre != null && cierre.fechaPedido != null && !fecha.isAfter(cierre.fechaPedido);
+    }
+
+    /**
+     * Arma el plano uniendo cada mesa con su pedido activo más reciente
+     * (mismo criterio que usaba la pantalla de caja)
+     */
+    private void rebuild() {
+        lock.lock();
+        try {
+            build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void build() {
+        Map<Integer, OrderDTO> pedidoPorMesa = new HashMap<>();
+        for (OrderDTO pedido : pedidosActivos.values()) {
+            pedidoPorMesa.merge(pedido.getNumeroMesa(), pedido,
+                    (a, b) -> a.getFechaCreacion().isAfter(b.getFechaCreacion()) ? a : b);
+        }
+
+        plano = mesas.values().stream()
+                .sorted(Comparator.comparing(TableDTO::getNumero))
+                .map(mesa -> {
+                    OrderDTO pedido = pedidoPorMesa.get(mesa.getNumero());
+                    return FloorTableDTO.builder()
+                            .id(mesa.getId())
+                            .numero(mesa.getNumero())
+                            .capacidad(mesa.getCapacidad())
+                            .estado(mesa.getEstado())
+                            .ocupantes(mesa.getOcupantes())
+                            .horaInicio(mesa.getHoraInicio())
+                            .pedido(pedido)
+                            .listoParaPagar(pedido != null && Boolean.TRUE.equals(pedido.getListoParaPagar()))
+                            .metodoPagoSolicitado(pedido != null ? pedido.getMetodoPagoSolicitado() : null)
+                            .build();
+                })
+                .collect(Collectors.toUnmodifiableList());
+    }
+}
@@ -0,0 +1,217 @@
+package com.rivelez.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rivelez.entity.IdempotencyRecord;
+import com.rivelez.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Servicio de idempotencia para los POST que crean pedidos o cobran. Si el
+ * cliente reintenta con el mismo Idempotency-Key, se devuelve la respuesta
+ * guardada sin volver a ejecutar la operación.
+ *
+ * Las respuestas exitosas se guardan en la tabla idempotency_keys y en una
+ * caché en memoria acotada. Insertar la fila antes de ejecutar reserva la
+ * clave: un duplicado concurrente (en esta u otra instancia) recibe 409.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 200;
+    private static final long MINUTOS_RESERVA_ABANDONADA = 5;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHoras;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int maxEntradas;
+
+    // Clave -> respuesta guardada, desalojando la menos usada al superar maxEntradas
+    private final Map<String, RespuestaGuardada> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RespuestaGuardada> eldest) {
+            return size() > maxEntradas;
+        }
+    };
+
+    private static final class RespuestaGuardada {
+
+        private final String huella;
+        private final int estadoHttp;
+        private final String respuesta;
+        private final LocalDateTime expira;
+
+        private RespuestaGuardada(IdempotencyRecord registro, long ttlHoras) {
+            this.huella = registro.getHuella();
+            this.estadoHttp = registro.getEstadoHttp();
+            this.respuesta = registro.getRespuesta();
+            this.expira = registro.getFecha().plusHours(ttlHoras);
+        }
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave. Sin Idempotency-Key se
+     * ejecuta siempre. Solo se guardan las respuestas 2xx: ante un error el
+     * cliente puede reintentar con la misma clave.
+     */
+    public ResponseEntity<?> execute(String operacion, String idempotencyKey, Object solicitud,
+            Supplier<ResponseEntity<?>> accion) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return accion.get();
+        }
+        if (idempotencyKey.length() > LONGITUD_MAXIMA_CLAVE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Idempotency-Key demasiado larga"));
+        }
+
+        String clave = operacion + ":" + idempotencyKey.trim();
+        String huella = fingerprint(solicitud);
+
+        RespuestaGuardada guardada = fromCache(clave);
+        if (guardada != null) {
+            return replay(guardada, huella);
+        }
+
+        Optional<IdempotencyRecord> existente = idempotencyRecordRepository.findByClave(clave);
+        if (existente.isPresent()) {
+            if (!isExpired(existente.get())) {
+                return replayOrConflict(clave, existente.get(), huella);
+            }
+            idempotencyRecordRepository.delete(existente.get());
+        }
+
+        IdempotencyRecord registro;
+        try {
+            registro = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .clave(clave)
+                    .huella(huella)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Otra solicitud con la misma clave reservó primero
+            Optional<IdempotencyRecord> ganador = idempotencyRecordRepository.findByClave(clave);
+            return ganador.isPresent() ? replayOrConflict(clave, ganador.get(), huella) : conflict();
+        }
+
+        ResponseEntity<?> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.deletePendingByClave(clave);
+            throw e;
+        }
+
+        if (!respuesta.getStatusCode().is2xxSuccessful()) {
+            idempotencyRecordRepository.deletePendingByClave(clave);
+            return respuesta;
+        }
+
+        try {
+            registro.setEstadoHttp(respuesta.getStatusCode().value());
+            registro.setRespuesta(objectMapper.writeValueAsString(respuesta.getBody()));
+            registro = idempotencyRecordRepository.save(registro);
+            synchronized (cache) {
+                cache.put(clave, new RespuestaGuardada(registro, ttlHoras));
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // La operación ya se aplicó: se devuelve igual, pero la clave queda libre
+            log.warn("No se pudo guardar la respuesta idempotente {}: {}", clave, e.getMessage());
+            idempotencyRecordRepository.deletePendingByClave(clave);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Elimina las claves vencidas y las reservas abandonadas (instancia caída
+     * a mitad de una solicitud)
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-ms:3600000}")
+    public void cleanup() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int eliminadas = idempotencyRecordRepository.deleteExpired(ahora.minusHours(ttlHoras),
+                ahora.minusMinutes(MINUTOS_RESERVA_ABANDONADA));
+        synchronized (cache) {
+            cache.values().removeIf(r -> r.expira.isBefore(ahora));
+        }
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia vencidas eliminadas: {}", eliminadas);
+        }
+    }
+
+    private RespuestaGuardada fromCache(String clave) {
+        synchronized (cache) {
+            RespuestaGuardada guardada = cache.get(clave);
+            if (guardada != null && guardada.expira.isBefore(LocalDateTime.now())) {
+                cache.remove(clave);
+                return null;
+            }
+            return guardada;
+        }
+    }
+
+    private ResponseEntity<?> replayOrConflict(String clave, IdempotencyRecord registro, String huella) {
+        if (registro.getEstadoHttp() == null) {
+            return conflict();
+        }
+        RespuestaGuardada guardada = new RespuestaGuardada(registro, ttlHoras);
+        synchronized (cache) {
+            cache.put(clave, guardada);
+        }
+        return replay(guardada, huella);
+    }
+
+    private ResponseEntity<?> replay(RespuestaGuardada guardada, String huella) {
+        if (!guardada.huella.equals(huella)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("error", "La Idempotency-Key ya se usó con otra solicitud"));
+        }
+        return ResponseEntity.status(guardada.estadoHttp)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HEADER_REPETIDA, "true")
+                .body(guardada.respuesta);
+    }
+
+    private ResponseEntity<?> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Una solicitud con la misma Idempotency-Key está en proceso"));
+    }
+
+    private boolean isExpired(IdempotencyRecord registro) {
+        return registro.getFecha().plusHours(ttlHoras).isBefore(LocalDateTime.now());
+    }
+
+    private String fingerprint(Object solicitud) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(
+                    objectMapper.writeValueAsString(solicitud).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+}
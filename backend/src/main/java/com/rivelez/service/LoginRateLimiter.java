@@ -0,0 +1,138 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.AuthMetricsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admisión de intentos de login con token buckets por usuario y por IP,
+ * antes de gastar CPU en BCrypt. Cada bucket arranca lleno (ráfaga
+ * permitida) y se recarga a ritmo constante; cada intento consume un token.
+ *
+ * Los buckets se guardan en mapas LRU acotados: un bucket desalojado es de
+ * alguien que no intenta hace rato, y al volver arranca lleno.
+ */
+@Service
+public class LoginRateLimiter {
+
+    private final Buckets porUsuario;
+    private final Buckets porIp;
+
+    private final LongAdder admitidos = new LongAdder();
+    private final LongAdder rechazadosPorUsuario = new LongAdder();
+    private final LongAdder rechazadosPorIp = new LongAdder();
+
+    public LoginRateLimiter(
+            @Value("${auth.login.usuario.rafaga:5}") int rafagaUsuario,
+            @Value("${auth.login.usuario.por-minuto:5}") int porMinutoUsuario,
+            @Value("${auth.login.ip.rafaga:20}") int rafagaIp,
+            @Value("${auth.login.ip.por-minuto:30}") int porMinutoIp,
+            @Value("${auth.login.max-buckets:10000}") int maxBuckets) {
+        this.porUsuario = new Buckets(rafagaUsuario, porMinutoUsuario, maxBuckets);
+        this.porIp = new Buckets(rafagaIp, porMinutoIp, maxBuckets);
+    }
+
+    /**
+     * Se superó el ritmo de intentos permitido
+     */
+    public static class DemasiadosIntentosException extends RuntimeException {
+
+        private final long segundosEspera;
+
+        public DemasiadosIntentosException(long segundosEspera) {
+            super("Demasiados intentos, reintente en " + segundosEspera + " segundos");
+            this.segundosEspera = segundosEspera;
+        }
+
+        public long getSegundosEspera() {
+            return segundosEspera;
+        }
+    }
+
+    /**
+     * Consume un intento de la IP y, si hay usuario, del usuario. Devuelve 0
+     * si se admite o los segundos a esperar para el próximo intento.
+     */
+    public long tryAcquire(String username, String ip) {
+        long espera = porIp.tryAcquire(ip);
+        if (espera > 0) {
+            rechazadosPorIp.increment();
+            return espera;
+        }
+        if (username != null) {
+            espera = porUsuario.tryAcquire(username.trim().toLowerCase(Locale.ROOT));
+            if (espera > 0) {
+                rechazadosPorUsuario.increment();
+                return espera;
+            }
+        }
+        admitidos.increment();
+        return 0;
+    }
+
+    public AuthMetricsDTO.Ingresos getMetrics() {
+        return AuthMetricsDTO.Ingresos.builder()
+                .admitidos(admitidos.sum())
+                .rechazadosPorUsuario(rechazadosPorUsuario.sum())
+                .rechazadosPorIp(rechazadosPorIp.sum())
+                .usuariosSeguidos(porUsuario.size())
+                .ipsSeguidas(porIp.size())
+                .build();
+    }
+
+    private static final class Bucket {
+
+        double tokens;
+        long ultimaRecarga;
+
+        Bucket(double tokens, long ultimaRecarga) {
+            this.tokens = tokens;
+            this.ultimaRecarga = ultimaRecarga;
+        }
+    }
+
+    /**
+     * Buckets por clave con la misma capacidad y ritmo de recarga
+     */
+    private static final class Buckets {
+
+        private final double capacidad;
+        private final double tokensPorNano;
+        private final Map<String, Bucket> buckets;
+
+        Buckets(int capacidad, int porMinuto, int maxEntradas) {
+            if (capacidad <= 0 || porMinuto <= 0) {
+                throw new IllegalStateException("Límite de login inválido: " + capacidad + "/" + porMinuto);
+            }
+            this.capacidad = capacidad;
+            this.tokensPorNano = porMinuto / 60e9;
+            this.buckets = new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntradas;
+                }
+            };
+        }
+
+        synchronized long tryAcquire(String clave) {
+            long ahora = System.nanoTime();
+            Bucket bucket = buckets.computeIfAbsent(clave, c -> new Bucket(capacidad, ahora));
+            bucket.tokens = Math.min(capacidad, bucket.tokens + (ahora - bucket.ultimaRecarga) * tokensPorNano);
+            bucket.ultimaRecarga = ahora;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPorNano / 1e9);
+        }
+
+        synchronized int size() {
+            return buckets.size();
+        }
+    }
+}
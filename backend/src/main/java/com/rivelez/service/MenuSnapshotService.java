@@ -0,0 +1,219 @@
+package com.rivelez.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rivelez.dto.ProductDTO;
+import com.rivelez.entity.ProductCategory;
+import com.rivelez.event.ProductChangedEvent;
+import com.rivelez.event.PromotionChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Menú público (productos disponibles) precalculado. Se arma una vez al
+ * iniciar y cada vez que se confirma un cambio de productos o promociones;
+ * las lecturas de /api/products/available devuelven los bytes ya
+ * serializados (y comprimidos) sin tocar la base.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuSnapshotService {
+
+    private static final String SUFIJO_GZIP = "-gz";
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+
+    // Serializa los rearmados sin fijar hilos virtuales mientras leen la base
+    private final ReentrantLock lock = new ReentrantLock();
+    private long version;
+    private volatile Menu menu;
+
+    /**
+     * Representación serializada de una parte del menú. El ETag fuerte se
+     * calcula sobre el contenido, así coincide entre reinicios e instancias.
+     */
+    public static final class MenuEntry {
+
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String hash;
+
+        private MenuEntry(byte[] json, byte[] gzip, String hash) {
+            this.json = json;
+            this.gzip = gzip;
+            this.hash = hash;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return "\"" + hash + "\"";
+        }
+
+        public String getGzipEtag() {
+            return "\"" + hash + SUFIJO_GZIP + "\"";
+        }
+
+        /**
+         * Indica si alguno de los ETags de If-None-Match corresponde a este
+         * contenido, en cualquiera de sus codificaciones
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String etag : ifNoneMatch.split(",")) {
+                String valor = etag.trim();
+                if (valor.equals("*")) {
+                    return true;
+                }
+                if (valor.startsWith("W/")) {
+                    valor = valor.substring(2);
+                }
+                valor = valor.replace("\"", "");
+                if (valor.endsWith(SUFIJO_GZIP)) {
+                    valor = valor.substring(0, valor.length() - SUFIJO_GZIP.length());
+                }
+                if (valor.equals(hash)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Menu {
+
+        private final long version;
+        private final MenuEntry completo;
+        private final Map<ProductCategory, MenuEntry> porCategoria;
+
+        private Menu(long version, MenuEntry completo, Map<ProductCategory, MenuEntry> porCategoria) {
+            this.version = version;
+            this.completo = completo;
+            this.porCategoria = porCategoria;
+        }
+    }
+
+    /**
+     * Menú completo de productos disponibles
+     */
+    public MenuEntry getMenu() {
+        return current().completo;
+    }
+
+    /**
+     * Productos disponibles de una categoría
+     */
+    public MenuEntry getMenu(ProductCategory categoria) {
+        return current().porCategoria.get(categoria);
+    }
+
+    /**
+     * Versión del menú, se incrementa en cada cambio de productos o promociones
+     */
+    public long getVersion() {
+        return current().version;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+        log.info("Menú público cargado (versión {}, {} bytes)", menu.version, menu.completo.json.length);
+    }
+
+    /**
+     * Rearma el menú una vez confirmado el cambio de producto
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rearma el menú una vez confirmado el cambio de promoción
+     */
+    @TransactionalEventListener
+    public void onPromotionChanged(PromotionChangedEvent event) {
+        rebuild();
+    }
+
+    private Menu current() {
+        Menu actual = menu;
+        if (actual == null) {
+            // Solicitud previa a ApplicationReadyEvent
+            rebuild();
+            actual = menu;
+        }
+        return actual;
+    }
+
+    /**
+     * Lee los productos disponibles y serializa el menú completo y cada
+     * categoría. Bajo el lock para que un armado viejo no pise uno nuevo.
+     */
+    private void rebuild() {
+        lock.lock();
+        try {
+            build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void build() {
+        List<ProductDTO> productos = productService.getAvailableProducts();
+
+        Map<ProductCategory, List<ProductDTO>> agrupados = new EnumMap<>(ProductCategory.class);
+        for (ProductCategory categoria : ProductCategory.values()) {
+            agrupados.put(categoria, new ArrayList<>());
+        }
+        productos.forEach(producto -> agrupados.get(producto.getCategoria()).add(producto));
+
+        Map<ProductCategory, MenuEntry> porCategoria = new EnumMap<>(ProductCategory.class);
+        agrupados.forEach((categoria, lista) -> porCategoria.put(categoria, serialize(lista)));
+
+        menu = new Menu(++version, serialize(productos), porCategoria);
+    }
+
+    private MenuEntry serialize(List<ProductDTO> productos) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(productos).getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(json);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return new MenuEntry(json, comprimido.toByteArray(), HexFormat.of().formatHex(digest, 0, 16));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo serializar el menú", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo comprimir el menú", e);
+        }
+    }
+}
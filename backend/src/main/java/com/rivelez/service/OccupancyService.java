@@ -0,0 +1,348 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.ReportSummaryDTO.OcupacionHora;
+import com.rivelez.entity.DailyOccupancy;
+import com.rivelez.entity.RestaurantTable;
+import com.rivelez.entity.TableStatus;
+import com.rivelez.event.TableChangedEvent;
+import com.rivelez.repository.DailyOccupancyRepository;
+import com.rivelez.repository.TableRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serie de ocupación de mesas por minuto. Cada cambio de mesa confirmado
+ * (TableService, y la ocupación que dispara OrderService al crear un pedido)
+ * avanza la serie del día; los días se guardan en daily_occupancy y el día
+ * en curso se persiste periódicamente.
+ *
+ * Cada guardado va en su propia transacción: los cambios de mesa llegan
+ * después del commit, donde un save del repositorio no se confirmaría. Un
+ * día cerrado que no se pudo guardar se reintenta en el próximo flush.
+ *
+ * Los promedios solo cuentan el horario de atención configurado y los
+ * minutos con datos: si la aplicación estuvo detenida esos minutos quedan
+ * en cero mesas y no pesan.
+ */
+@Slf4j
+@Service
+public class OccupancyService {
+
+    static final int MINUTOS_DIA = 24 * 60;
+
+    private final TableRepository tableRepository;
+    private final DailyOccupancyRepository dailyOccupancyRepository;
+    private final int horaApertura;
+    private final int horaCierre;
+    private final TransactionTemplate nuevaTransaccion;
+
+    // Estado de cada mesa (true = no disponible); todo el estado se guarda con this
+    private final Map<Long, Boolean> estados = new HashMap<>();
+    private int ocupadas;
+    private Serie hoy;
+    // Días cerrados cuyo guardado falló
+    private final List<Serie> sinGuardar = new ArrayList<>();
+
+    public OccupancyService(TableRepository tableRepository,
+            DailyOccupancyRepository dailyOccupancyRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${occupancy.hora-apertura:8}") int horaApertura,
+            @Value("${occupancy.hora-cierre:24}") int horaCierre) {
+        if (horaApertura < 0 || horaCierre > 24 || horaApertura >= horaCierre) {
+            throw new IllegalStateException("Horario de atención inválido: " + horaApertura + "-" + horaCierre);
+        }
+        this.tableRepository = tableRepository;
+        this.dailyOccupancyRepository = dailyOccupancyRepository;
+        this.horaApertura = horaApertura;
+        this.horaCierre = horaCierre;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Mesas ocupadas y existentes por minuto de un día
+     */
+    static final class Serie {
+
+        final LocalDate fecha;
+        final short[] ocupadas;
+        final short[] mesas;
+        int ultimoMinuto;
+
+        Serie(LocalDate fecha) {
+            this(fecha, new short[MINUTOS_DIA], new short[MINUTOS_DIA], -1);
+        }
+
+        Serie(LocalDate fecha, short[] ocupadas, short[] mesas, int ultimoMinuto) {
+            this.fecha = fecha;
+            this.ocupadas = ocupadas;
+            this.mesas = mesas;
+            this.ultimoMinuto = ultimoMinuto;
+        }
+
+        // Repite el estado dado desde el último minuto registrado hasta el indicado
+        void fill(int hasta, int mesasOcupadas, int totalMesas) {
+            for (int minuto = ultimoMinuto + 1; minuto <= hasta; minuto++) {
+                ocupadas[minuto] = (short) mesasOcupadas;
+                mesas[minuto] = (short) totalMesas;
+            }
+            ultimoMinuto = Math.max(ultimoMinuto, hasta);
+        }
+
+        Serie copy() {
+            return new Serie(fecha, ocupadas.clone(), mesas.clone(), ultimoMinuto);
+        }
+    }
+
+    /**
+     * Carga el estado actual de las mesas y retoma la serie de hoy si ya
+     * estaba guardada. Los eventos que llegan durante la carga tienen
+     * prioridad sobre lo leído.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        List<RestaurantTable> mesas = tableRepository.findAll();
+        LocalDateTime ahora = LocalDateTime.now();
+        Serie serie = dailyOccupancyRepository.findById(ahora.toLocalDate())
+                .map(OccupancyService::toSerie)
+                .orElseGet(() -> new Serie(ahora.toLocalDate()));
+
+        synchronized (this) {
+            mesas.forEach(mesa -> estados.putIfAbsent(mesa.getId(), mesa.getEstado() != TableStatus.AVAILABLE));
+            ocupadas = countOccupied();
+            // Los minutos con la aplicación detenida quedan sin datos
+            serie.ultimoMinuto = Math.max(serie.ultimoMinuto, minuteOf(ahora) - 1);
+            serie.fill(minuteOf(ahora), ocupadas, estados.size());
+            hoy = serie;
+        }
+        log.info("Ocupación cargada: {} de {} mesas ocupadas", ocupadas, mesas.size());
+    }
+
+    /**
+     * Registra el cambio de la mesa una vez confirmada la transacción
+     */
+    @TransactionalEventListener
+    public void onTableChanged(TableChangedEvent event) {
+        List<Serie> cerradas;
+        synchronized (this) {
+            LocalDateTime ahora = LocalDateTime.now();
+            cerradas = hoy != null ? advance(ahora) : List.of();
+            if (event.isEliminada()) {
+                estados.remove(event.getMesa().getId());
+            } else {
+                estados.put(event.getMesa().getId(), event.getMesa().getEstado() != TableStatus.AVAILABLE);
+            }
+            ocupadas = countOccupied();
+            if (hoy != null) {
+                int minuto = minuteOf(ahora);
+                hoy.ocupadas[minuto] = (short) ocupadas;
+                hoy.mesas[minuto] = (short) estados.size();
+            }
+        }
+        saveClosed(cerradas);
+    }
+
+    /**
+     * Guarda el día en curso (y los días que se cerraron sin cambios de mesa)
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${occupancy.flush-ms:300000}", initialDelayString = "${occupancy.flush-ms:300000}")
+    public void flush() {
+        List<Serie> pendientes = new ArrayList<>();
+        synchronized (this) {
+            if (hoy == null) {
+                return;
+            }
+            pendientes.addAll(sinGuardar);
+            sinGuardar.clear();
+            pendientes.addAll(advance(LocalDateTime.now()));
+            pendientes.add(hoy.copy());
+        }
+        saveClosed(pendientes);
+    }
+
+    /**
+     * Ocupación promedio (%) del rango en el horario de atención: minutos-mesa
+     * ocupados sobre minutos-mesa existentes
+     */
+    public double getAverage(LocalDate desde, LocalDate hasta) {
+        Serie actual = current();
+        long minutosOcupados = 0;
+        long minutosMesa = 0;
+
+        Object[] guardados = dailyOccupancyRepository.sumBetween(desde, earliest(hasta, actual.fecha.minusDays(1)))
+                .get(0);
+        if (guardados[0] != null) {
+            minutosOcupados += ((Number) guardados[0]).longValue();
+            minutosMesa += ((Number) guardados[1]).longValue();
+        }
+        if (!actual.fecha.isBefore(desde) && !actual.fecha.isAfter(hasta)) {
+            long[] totales = totals(actual);
+            minutosOcupados += totales[0];
+            minutosMesa += totales[1];
+        }
+        return minutosMesa > 0 ? (minutosOcupados * 100.0) / minutosMesa : 0.0;
+    }
+
+    /**
+     * Ocupación por hora del horario de atención en el rango: promedio y
+     * máximo por minuto (%)
+     */
+    public List<OcupacionHora> getByHour(LocalDate desde, LocalDate hasta) {
+        long[] minutosOcupados = new long[24];
+        long[] minutosMesa = new long[24];
+        double[] maxima = new double[24];
+
+        for (Serie serie : series(desde, hasta)) {
+            for (int minuto = horaApertura * 60; minuto < horaCierre * 60; minuto++) {
+                if (serie.mesas[minuto] == 0) {
+                    continue;
+                }
+                int hora = minuto / 60;
+                minutosOcupados[hora] += serie.ocupadas[minuto];
+                minutosMesa[hora] += serie.mesas[minuto];
+                maxima[hora] = Math.max(maxima[hora], (serie.ocupadas[minuto] * 100.0) / serie.mesas[minuto]);
+            }
+        }
+
+        List<OcupacionHora> resultado = new ArrayList<>();
+        for (int hora = horaApertura; hora < horaCierre; hora++) {
+            resultado.add(OcupacionHora.builder()
+                    .hora(hora)
+                    .promedio(minutosMesa[hora] > 0 ? (minutosOcupados[hora] * 100.0) / minutosMesa[hora] : 0.0)
+                    .maxima(maxima[hora])
+                    .build());
+        }
+        return resultado;
+    }
+
+    /**
+     * Series guardadas del rango más la del día en curso si corresponde
+     */
+    private List<Serie> series(LocalDate desde, LocalDate hasta) {
+        Serie actual = current();
+        List<Serie> resultado = new ArrayList<>();
+        for (DailyOccupancy dia : dailyOccupancyRepository.findByFechaBetweenOrderByFecha(desde,
+                earliest(hasta, actual.fecha.minusDays(1)))) {
+            resultado.add(toSerie(dia));
+        }
+        if (!actual.fecha.isBefore(desde) && !actual.fecha.isAfter(hasta)) {
+            resultado.add(actual);
+        }
+        return resultado;
+    }
+
+    /**
+     * Copia del día en curso hasta el minuto actual; los días cerrados se
+     * guardan antes de devolverla para que las consultas los encuentren
+     */
+    private Serie current() {
+        List<Serie> cerradas;
+        Serie actual;
+        synchronized (this) {
+            if (hoy == null) {
+                return new Serie(LocalDate.now());
+            }
+            cerradas = advance(LocalDateTime.now());
+            actual = hoy.copy();
+        }
+        saveClosed(cerradas);
+        return actual;
+    }
+
+    /**
+     * Lleva la serie hasta el minuto dado con el estado vigente. Si cambió el
+     * día completa el anterior y devuelve los días cerrados para guardarlos.
+     */
+    private List<Serie> advance(LocalDateTime ahora) {
+        List<Serie> cerradas = new ArrayList<>();
+        while (hoy.fecha.isBefore(ahora.toLocalDate())) {
+            hoy.fill(MINUTOS_DIA - 1, ocupadas, estados.size());
+            cerradas.add(hoy);
+            hoy = new Serie(hoy.fecha.plusDays(1));
+        }
+        hoy.fill(minuteOf(ahora), ocupadas, estados.size());
+        return cerradas;
+    }
+
+    private void saveClosed(List<Serie> series) {
+        for (Serie serie : series) {
+            try {
+                save(serie);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo guardar la ocupación del {}, se reintenta en el próximo flush: {}", serie.fecha,
+                        e.getMessage());
+                synchronized (this) {
+                    sinGuardar.add(serie);
+                }
+            }
+        }
+    }
+
+    private void save(Serie serie) {
+        long[] totales = totals(serie);
+        nuevaTransaccion.executeWithoutResult(status -> dailyOccupancyRepository.save(new DailyOccupancy(serie.fecha,
+                encode(serie.ocupadas), encode(serie.mesas), totales[0], totales[1], serie.ultimoMinuto)));
+    }
+
+    // [minutos-mesa ocupados, minutos-mesa existentes] del horario de atención
+    private long[] totals(Serie serie) {
+        long[] totales = new long[2];
+        for (int minuto = horaApertura * 60; minuto < horaCierre * 60; minuto++) {
+            totales[0] += serie.ocupadas[minuto];
+            totales[1] += serie.mesas[minuto];
+        }
+        return totales;
+    }
+
+    private int countOccupied() {
+        int total = 0;
+        for (boolean ocupada : estados.values()) {
+            if (ocupada) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private static Serie toSerie(DailyOccupancy dia) {
+        return new Serie(dia.getFecha(), decode(dia.getOcupadas()), decode(dia.getMesas()), dia.getUltimoMinuto());
+    }
+
+    private static byte[] encode(short[] valores) {
+        ByteBuffer buffer = ByteBuffer.allocate(valores.length * 2);
+        buffer.asShortBuffer().put(valores);
+        return buffer.array();
+    }
+
+    private static short[] decode(byte[] bytes) {
+        short[] valores = new short[MINUTOS_DIA];
+        ByteBuffer.wrap(bytes).asShortBuffer().get(valores);
+        return valores;
+    }
+
+    private static int minuteOf(LocalDateTime fecha) {
+        return fecha.getHour() * 60 + fecha.getMinute();
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
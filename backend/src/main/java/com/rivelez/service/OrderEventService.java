@@ -0,0 +1,207 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.OrderDTO;
+import com.rivelez.event.OrderChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio que mantiene las suscripciones SSE de los clientes que siguen el
+ * estado de su pedido. Reemplaza el polling de GET /api/orders/{id}: solo se
+ * envía un evento cuando el pedido cambia, más un heartbeat periódico.
+ *
+ * Los envíos no se hacen en el hilo que confirma el pedido ni en el del
+ * heartbeat: cada suscripción encola sus eventos y los escribe en
+ * sseExecutor, de a uno y en orden. Un cliente lento solo demora su propia
+ * cola; si se le acumulan demasiados eventos se cierra su stream y al
+ * reconectar recibe el estado actual.
+ */
+@Slf4j
+@Service
+public class OrderEventService {
+
+    private static final String EVENTO_PEDIDO = "pedido";
+    private static final int MAX_PENDIENTES = 32;
+    // Marca en la cola: completar el stream después de los eventos previos
+    private static final SseEmitter.SseEventBuilder FIN = SseEmitter.event();
+
+    private final Map<Long, Set<Suscripcion>> suscripcionesPorPedido = new ConcurrentHashMap<>();
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${orders.sse.max-connections:200}")
+    private int maxConexiones;
+
+    @Value("${orders.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public OrderEventService(@Qualifier("sseExecutor") ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Registra una suscripción al pedido y envía su estado actual.
+     * Devuelve null si se alcanzó el límite de conexiones.
+     */
+    public SseEmitter subscribe(Long orderId, OrderDTO estadoActual) {
+        if (conexiones.incrementAndGet() > maxConexiones) {
+            conexiones.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscripcion suscripcion = new Suscripcion(orderId, emitter);
+        // El estado actual va primero en la cola, antes que cualquier cambio
+        suscripcion.enqueue(SseEmitter.event().name(EVENTO_PEDIDO).data(estadoActual));
+        suscripcionesPorPedido.compute(orderId, (id, suscripciones) -> {
+            Set<Suscripcion> set = suscripciones != null ? suscripciones : ConcurrentHashMap.newKeySet();
+            set.add(suscripcion);
+            return set;
+        });
+        if (suscripcion.cerrada) {
+            // Falló el primer envío antes de quedar registrada
+            remove(suscripcion);
+        }
+
+        emitter.onCompletion(() -> remove(suscripcion));
+        emitter.onTimeout(() -> remove(suscripcion));
+        emitter.onError(e -> remove(suscripcion));
+        return emitter;
+    }
+
+    /**
+     * Encola el pedido actualizado para sus suscriptores una vez confirmada
+     * la transacción
+     */
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDTO pedido = event.getPedido();
+        Set<Suscripcion> suscripciones = suscripcionesPorPedido.get(pedido.getId());
+        if (suscripciones == null) {
+            return;
+        }
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.enqueue(SseEmitter.event().name(EVENTO_PEDIDO).data(pedido));
+            if (event.getTipo() == OrderChangedEvent.Tipo.ELIMINADO) {
+                // El pedido ya no existe: cerrar el stream
+                suscripcion.enqueue(FIN);
+            }
+        }
+    }
+
+    /**
+     * Heartbeat para mantener viva la conexión a través de proxies y detectar
+     * clientes desconectados
+     */
+    @Scheduled(fixedDelayString = "${orders.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        suscripcionesPorPedido.values().forEach(suscripciones -> suscripciones
+                .forEach(suscripcion -> suscripcion.enqueue(SseEmitter.event().comment("ping"))));
+    }
+
+    /**
+     * Cantidad de conexiones SSE abiertas
+     */
+    public int getConexionesActivas() {
+        return conexiones.get();
+    }
+
+    private void remove(Suscripcion suscripcion) {
+        suscripcionesPorPedido.computeIfPresent(suscripcion.orderId, (id, suscripciones) -> {
+            if (suscripciones.remove(suscripcion)) {
+                conexiones.decrementAndGet();
+            }
+            return suscripciones.isEmpty() ? null : suscripciones;
+        });
+    }
+
+    /**
+     * Un cliente SSE con su cola de eventos pendientes. Como mucho hay una
+     * tarea de envío por suscripción en el executor.
+     */
+    private final class Suscripcion {
+
+        private final Long orderId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pendientes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger encolados = new AtomicInteger();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private volatile boolean cerrada;
+
+        Suscripcion(Long orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder evento) {
+            if (cerrada) {
+                return;
+            }
+            if (encolados.incrementAndGet() > MAX_PENDIENTES) {
+                close(new IllegalStateException("Cliente SSE demasiado lento"));
+                return;
+            }
+            pendientes.add(evento);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!enviando.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                log.warn("Executor SSE saturado; se cierra el stream del pedido {}", orderId);
+                enviando.set(false);
+                close(e);
+            }
+        }
+
+        private void drain() {
+            SseEmitter.SseEventBuilder evento;
+            while (!cerrada && (evento = pendientes.poll()) != null) {
+                encolados.decrementAndGet();
+                if (evento == FIN) {
+                    cerrada = true;
+                    emitter.complete();
+                    break;
+                }
+                try {
+                    emitter.send(evento);
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado: liberar la suscripción
+                    close(e);
+                }
+            }
+            enviando.set(false);
+            // Un evento pudo llegar entre el último poll y liberar la marca
+            if (!cerrada && !pendientes.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void close(Exception causa) {
+            cerrada = true;
+            pendientes.clear();
+            remove(this);
+            emitter.completeWithError(causa);
+        }
+    }
+}
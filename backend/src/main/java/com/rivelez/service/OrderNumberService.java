@@ -0,0 +1,165 @@
+package com.rivelez.service;
+
+import com.rivelez.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asigna los números de pedido PED-yyyyMMdd-XXXX. La secuencia de cada día
+ * vive en la tabla order_sequences; cada instancia reserva bloques de
+ * números (hi/lo) y los reparte desde memoria sin locks, así varias
+ * instancias nunca entregan el mismo número y el contador vuelve a 1 cada día.
+ */
+@Slf4j
+@Service
+public class OrderNumberService {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String SQL_EXISTE = "SELECT COUNT(*) FROM order_sequences WHERE fecha = ?";
+    private static final String SQL_RESERVAR = "INSERT INTO order_sequences (fecha, siguiente) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE siguiente = siguiente + ?";
+    private static final String SQL_SIGUIENTE = "SELECT siguiente FROM order_sequences WHERE fecha = ?";
+    private static final String SQL_DEVOLVER = "UPDATE order_sequences SET siguiente = ? WHERE fecha = ? AND siguiente = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate nuevaTransaccion;
+    private final int tamanoBloque;
+
+    private final AtomicReference<Bloque> bloqueActual = new AtomicReference<>();
+    // ReentrantLock y no synchronized: la reserva hace JDBC y con hilos
+    // virtuales un monitor fijaría el hilo portador mientras espera la base
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Rango [cursor, fin) reservado en la base para una fecha
+     */
+    private static final class Bloque {
+
+        private final LocalDate fecha;
+        private final AtomicLong cursor;
+        private final long fin;
+
+        private Bloque(LocalDate fecha, long inicio, long fin) {
+            this.fecha = fecha;
+            this.cursor = new AtomicLong(inicio);
+            this.fin = fin;
+        }
+    }
+
+    public OrderNumberService(JdbcTemplate jdbcTemplate,
+            OrderRepository orderRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.numero.block-size:10}") int tamanoBloque) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderRepository = orderRepository;
+        // La reserva se confirma aunque el pedido que la pidió haga rollback
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+    }
+
+    /**
+     * Genera el siguiente número de pedido del día
+     */
+    public String nextOrderNumber() {
+        LocalDate hoy = LocalDate.now();
+        return String.format("PED-%s-%04d", hoy.format(FORMATO_FECHA), next(hoy));
+    }
+
+    /**
+     * Al apagar, devuelve a la secuencia los números reservados que no se
+     * usaron, solo si ninguna otra instancia reservó después de este bloque
+     */
+    @PreDestroy
+    public void releaseUnused() {
+        Bloque bloque = bloqueActual.getAndSet(null);
+        if (bloque == null) {
+            return;
+        }
+        long libre = Math.min(bloque.cursor.getAndSet(bloque.fin), bloque.fin);
+        if (libre >= bloque.fin) {
+            return;
+        }
+        try {
+            Integer devueltos = nuevaTransaccion.execute(status -> jdbcTemplate.update(SQL_DEVOLVER, libre,
+                    bloque.fecha, bloque.fin));
+            if (devueltos != null && devueltos > 0) {
+                log.info("Números de pedido {}..{} devueltos a la secuencia", libre, bloque.fin - 1);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron devolver los números de pedido sin usar: {}", e.getMessage());
+        }
+    }
+
+    private long next(LocalDate fecha) {
+        while (true) {
+            Bloque bloque = bloqueActual.get();
+            if (bloque != null && bloque.fecha.equals(fecha)) {
+                long numero = bloque.cursor.getAndIncrement();
+                if (numero < bloque.fin) {
+                    return numero;
+                }
+            }
+            refill(bloque, fecha);
+        }
+    }
+
+    /**
+     * Reserva un bloque nuevo cuando el actual se agotó o cambió el día. Solo
+     * un hilo por instancia va a la base; el resto reintenta con el bloque nuevo.
+     */
+    private void refill(Bloque agotado, LocalDate fecha) {
+        lock.lock();
+        try {
+            if (bloqueActual.get() != agotado) {
+                return;
+            }
+            bloqueActual.set(reserve(fecha));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Bloque reserve(LocalDate fecha) {
+        Long fin = nuevaTransaccion.execute(status -> {
+            // Primer bloque del día: continuar desde los pedidos ya numerados
+            // (p. ej. los generados antes de existir esta tabla)
+            long inicial = 1;
+            Integer existe = jdbcTemplate.queryForObject(SQL_EXISTE, Integer.class, fecha);
+            if (existe == null || existe == 0) {
+                inicial = lastUsedNumber(fecha) + 1;
+            }
+            // El upsert bloquea la fila, así el SELECT ve el valor que dejó esta transacción
+            jdbcTemplate.update(SQL_RESERVAR, fecha, inicial + tamanoBloque, tamanoBloque);
+            return jdbcTemplate.queryForObject(SQL_SIGUIENTE, Long.class, fecha);
+        });
+        return new Bloque(fecha, fin - tamanoBloque, fin);
+    }
+
+    private long lastUsedNumber(LocalDate fecha) {
+        String prefijo = "PED-" + fecha.format(FORMATO_FECHA) + "-";
+        return orderRepository.findTopByNumeroPedidoStartingWithOrderByIdDesc(prefijo)
+                .map(order -> {
+                    try {
+                        return Long.parseLong(order.getNumeroPedido().substring(prefijo.length()));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                })
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,327 @@
+package com.rivelez.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rivelez.dto.OutboxTaskDTO;
+import com.rivelez.entity.CustomerOrder;
+import com.rivelez.entity.OutboxTask;
+import com.rivelez.entity.OutboxTaskStatus;
+import com.rivelez.entity.OutboxTaskType;
+import com.rivelez.entity.StockItem;
+import com.rivelez.entity.StockMovementType;
+import com.rivelez.entity.TableStatus;
+import com.rivelez.event.OutboxTaskCreatedEvent;
+import com.rivelez.repository.OrderRepository;
+import com.rivelez.repository.OutboxTaskRepository;
+import com.rivelez.repository.StockItemRepository;
+import com.rivelez.repository.TableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Efectos secundarios de los pedidos que no necesitan bloquear la respuesta
+ * HTTP: movimientos de stock, ocupación de la mesa y aviso de stock bajo.
+ *
+ * Las tareas se guardan en outbox_tasks dentro de la transacción del pedido,
+ * se ejecutan en el executor sideEffectExecutor apenas se confirma y, si
+ * fallan o el executor está saturado, las retoma el barrido periódico con
+ * backoff exponencial.
+ *
+ * Las tareas de stock no se abandonan nunca: pasado outbox.max-intentos
+ * siguen reintentando con el backoff acotado a outbox.max-backoff-segundos
+ * (una caída de la base no pierde descuentos). La ocupación de mesa queda
+ * FALLIDA, porque aplicarla tarde puede ocupar una mesa ya liberada. El
+ * gerente ve ambas y puede reintentarlas (/api/gerente/outbox).
+ */
+@Slf4j
+@Service
+public class OrderOutboxService {
+
+    private static final int LIMITE_PROBLEMAS = 200;
+
+    private static final TypeReference<Map<Long, Integer>> TIPO_CANTIDADES = new TypeReference<>() {
+    };
+
+    private final OutboxTaskRepository outboxTaskRepository;
+    private final OrderRepository orderRepository;
+    private final TableRepository tableRepository;
+    private final StockItemRepository stockItemRepository;
+    private final StockService stockService;
+    private final TableService tableService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate nuevaTransaccion;
+
+    @Value("${outbox.max-intentos:8}")
+    private int maxIntentos;
+
+    @Value("${outbox.max-backoff-segundos:300}")
+    private long maxBackoffSegundos;
+
+    @Value("${outbox.lote:100}")
+    private int tamanoLote;
+
+    @Value("${outbox.retencion-dias:7}")
+    private int retencionDias;
+
+    public OrderOutboxService(OutboxTaskRepository outboxTaskRepository,
+            OrderRepository orderRepository,
+            TableRepository tableRepository,
+            StockItemRepository stockItemRepository,
+            StockService stockService,
+            TableService tableService,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.outboxTaskRepository = outboxTaskRepository;
+        this.orderRepository = orderRepository;
+        this.tableRepository = tableRepository;
+        this.stockItemRepository = stockItemRepository;
+        this.stockService = stockService;
+        this.tableService = tableService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Encola el descuento de insumos del pedido (en la transacción actual)
+     */
+    public void enqueueStockConsumption(CustomerOrder order, Map<Long, Integer> cantidadesPorItem) {
+        if (!cantidadesPorItem.isEmpty()) {
+            enqueue(order, OutboxTaskType.CONSUMIR_STOCK, cantidadesPorItem,
+                    "Venta Pedido #" + order.getNumeroPedido());
+        }
+    }
+
+    /**
+     * Encola la devolución de insumos de un pedido cancelado. Si el descuento
+     * todavía no se aplicó, simplemente se descarta y no hay nada que devolver.
+     * Se devuelve exactamente lo que se descontó; los pedidos anteriores al
+     * outbox usan las cantidades calculadas con las recetas actuales.
+     */
+    public void enqueueStockRestoration(CustomerOrder order, Map<Long, Integer> cantidadesPorReceta) {
+        Optional<OutboxTask> consumo = outboxTaskRepository.findFirstByPedidoIdAndTipoOrderByIdDesc(order.getId(),
+                OutboxTaskType.CONSUMIR_STOCK);
+
+        Map<Long, Integer> cantidades = cantidadesPorReceta;
+        if (consumo.isPresent()) {
+            // Bloquea hasta que termine una ejecución en curso del consumo
+            if (outboxTaskRepository.deleteIfNotCompleted(consumo.get().getId()) > 0) {
+                return;
+            }
+            cantidades = readPayload(consumo.get());
+        }
+
+        if (!cantidades.isEmpty()) {
+            enqueue(order, OutboxTaskType.RESTAURAR_STOCK, cantidades,
+                    "Restauración (Cancelación) Pedido #" + order.getNumeroPedido());
+        }
+    }
+
+    /**
+     * Encola la ocupación de la mesa del pedido
+     */
+    public void enqueueTableOccupancy(CustomerOrder order) {
+        enqueue(order, OutboxTaskType.OCUPAR_MESA, null, null);
+    }
+
+    /**
+     * Ejecuta la tarea recién confirmada fuera del hilo de la solicitud
+     */
+    @Async("sideEffectExecutor")
+    @TransactionalEventListener
+    public void onTaskCreated(OutboxTaskCreatedEvent event) {
+        process(event.getTareaId());
+    }
+
+    /**
+     * Retoma las tareas pendientes: reintentos, tareas que el executor
+     * rechazó y las que quedaron de una instancia caída
+     */
+    @Scheduled(fixedDelayString = "${outbox.sweep-ms:5000}")
+    public void sweep() {
+        List<Long> pendientes = outboxTaskRepository.findDueIds(LocalDateTime.now(), Limit.of(tamanoLote));
+        pendientes.forEach(this::process);
+    }
+
+    /**
+     * Elimina las tareas completadas más antiguas que la retención
+     */
+    @Scheduled(cron = "${outbox.cleanup-cron:0 30 4 * * *}")
+    public void cleanup() {
+        nuevaTransaccion.executeWithoutResult(status -> outboxTaskRepository.deleteByEstadoAndFechaBefore(
+                OutboxTaskStatus.COMPLETADA, LocalDateTime.now().minusDays(retencionDias)));
+    }
+
+    /**
+     * Tareas que requieren atención: fallidas y pendientes que ya fallaron
+     * al menos una vez (más recientes primero)
+     */
+    public List<OutboxTaskDTO> getProblems() {
+        return outboxTaskRepository.findProblems(Limit.of(LIMITE_PROBLEMAS)).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Vuelve a poner en cola una tarea fallida o en espera de reintento, para
+     * ejecutarla ya
+     */
+    public OutboxTaskDTO retry(Long tareaId) {
+        OutboxTask tarea = nuevaTransaccion.execute(status -> {
+            OutboxTask encontrada = outboxTaskRepository.findById(tareaId)
+                    .orElseThrow(() -> new RuntimeException("Tarea no encontrada"));
+            if (encontrada.getEstado() == OutboxTaskStatus.COMPLETADA) {
+                throw new RuntimeException("La tarea ya fue aplicada");
+            }
+            encontrada.setEstado(OutboxTaskStatus.PENDIENTE);
+            encontrada.setProximoIntento(LocalDateTime.now());
+            return outboxTaskRepository.save(encontrada);
+        });
+        process(tarea.getId());
+        return outboxTaskRepository.findById(tareaId).map(this::toDTO).orElseThrow();
+    }
+
+    private void enqueue(CustomerOrder order, OutboxTaskType tipo, Map<Long, Integer> cantidades, String motivo) {
+        OutboxTask tarea = outboxTaskRepository.save(OutboxTask.builder()
+                .tipo(tipo)
+                .pedidoId(order.getId())
+                .payload(cantidades != null ? writePayload(cantidades) : null)
+                .motivo(motivo)
+                .build());
+        eventPublisher.publishEvent(new OutboxTaskCreatedEvent(tarea.getId()));
+    }
+
+    /**
+     * Ejecuta una tarea una sola vez: tomarla y aplicar su efecto ocurren en
+     * la misma transacción, así el barrido y el executor nunca la aplican dos
+     * veces
+     */
+    private void process(Long tareaId) {
+        try {
+            nuevaTransaccion.executeWithoutResult(status -> {
+                if (outboxTaskRepository.claim(tareaId) == 0) {
+                    return; // Ya ejecutada o descartada
+                }
+                outboxTaskRepository.findById(tareaId).ifPresent(this::apply);
+            });
+        } catch (RuntimeException e) {
+            registerFailure(tareaId, e);
+        }
+    }
+
+    private void apply(OutboxTask tarea) {
+        switch (tarea.getTipo()) {
+            case CONSUMIR_STOCK -> {
+                Map<Long, Integer> cantidades = readPayload(tarea);
+                stockService.applyMovements(cantidades, StockMovementType.SALIDA, tarea.getMotivo());
+                warnLowStock(cantidades);
+            }
+            case RESTAURAR_STOCK -> stockService.applyMovements(readPayload(tarea), StockMovementType.ENTRADA,
+                    tarea.getMotivo());
+            case OCUPAR_MESA -> occupyTable(tarea.getPedidoId());
+        }
+    }
+
+    private void occupyTable(Long pedidoId) {
+        orderRepository.findById(pedidoId).ifPresent(order -> tableRepository.findByNumero(order.getNumeroMesa())
+                .ifPresent(table -> {
+                    table.setEstado(TableStatus.OCCUPIED);
+                    table.setPedidoActualId(order.getId());
+                    table.setOcupantes(order.getPersonas());
+                    table.setHoraInicio(order.getFechaCreacion());
+                    tableService.publishChange(tableRepository.save(table));
+                }));
+    }
+
+    private void warnLowStock(Map<Long, Integer> cantidades) {
+        for (StockItem item : stockItemRepository.findAllById(cantidades.keySet())) {
+            if (item.getCantidadActual() == 0) {
+                log.warn("Stock agotado: {} (el consumo de la receta pudo superar lo disponible)", item.getNombre());
+            } else if (item.getCantidadActual() <= item.getCantidadMinima()) {
+                log.warn("Stock bajo: {} ({} {}, mínimo {})", item.getNombre(), item.getCantidadActual(),
+                        item.getUnidadMedida(), item.getCantidadMinima());
+            }
+        }
+    }
+
+    private void registerFailure(Long tareaId, RuntimeException error) {
+        nuevaTransaccion.executeWithoutResult(status -> outboxTaskRepository.findById(tareaId).ifPresent(tarea -> {
+            if (tarea.getEstado() != OutboxTaskStatus.PENDIENTE) {
+                return;
+            }
+            int intentos = tarea.getIntentos() + 1;
+            tarea.setIntentos(intentos);
+            tarea.setUltimoError(error.getMessage());
+            boolean reintentaSiempre = tarea.getTipo() != OutboxTaskType.OCUPAR_MESA;
+            if (intentos >= maxIntentos && !reintentaSiempre) {
+                tarea.setEstado(OutboxTaskStatus.FALLIDA);
+                log.error("Tarea {} del pedido {} falló {} veces, queda para revisión: {}", tarea.getTipo(),
+                        tarea.getPedidoId(), intentos, error.getMessage());
+            } else {
+                // Backoff exponencial: 2, 4, 8... segundos, hasta maxBackoffSegundos
+                long espera = Math.min(1L << Math.min(intentos, 20), maxBackoffSegundos);
+                tarea.setProximoIntento(LocalDateTime.now().plusSeconds(espera));
+                if (intentos >= maxIntentos) {
+                    log.error("Tarea {} del pedido {} falló {} veces, se reintenta en {} s: {}", tarea.getTipo(),
+                            tarea.getPedidoId(), intentos, espera, error.getMessage());
+                } else {
+                    log.warn("Tarea {} del pedido {} falló (intento {}): {}", tarea.getTipo(), tarea.getPedidoId(),
+                            intentos, error.getMessage());
+                }
+            }
+            outboxTaskRepository.save(tarea);
+        }));
+    }
+
+    private OutboxTaskDTO toDTO(OutboxTask tarea) {
+        return OutboxTaskDTO.builder()
+                .id(tarea.getId())
+                .tipo(tarea.getTipo())
+                .pedidoId(tarea.getPedidoId())
+                .motivo(tarea.getMotivo())
+                .estado(tarea.getEstado())
+                .intentos(tarea.getIntentos())
+                .proximoIntento(tarea.getProximoIntento())
+                .ultimoError(tarea.getUltimoError())
+                .fecha(tarea.getFecha())
+                .build();
+    }
+
+    private String writePayload(Map<Long, Integer> cantidades) {
+        try {
+            return objectMapper.writeValueAsString(cantidades);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la tarea", e);
+        }
+    }
+
+    private Map<Long, Integer> readPayload(OutboxTask tarea) {
+        if (tarea.getPayload() == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(tarea.getPayload(), TIPO_CANTIDADES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido en la tarea " + tarea.getId(), e);
+        }
+    }
+}
@@ -2,21 +2,26 @@ package com.rivelez.service;
 
 import com.rivelez.dto.*;
 import com.rivelez.entity.*;
+import com.rivelez.event.OrderChangedEvent;
 import com.rivelez.repository.OrderRepository;
+import com.rivelez.repository.OrderSpecifications;
 import com.rivelez.repository.ProductRepository;
 import com.rivelez.repository.TableRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import jakarta.annotation.PostConstruct;
 
 /**
  * Servicio para gestión de pedidos
@@ -28,36 +33,17 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final TableRepository tableRepository;
-
-    private final com.rivelez.repository.StockItemRepository stockItemRepository;
-    private final com.rivelez.repository.StockMovementRepository stockMovementRepository;
-
-    private static final AtomicLong orderCounter = new AtomicLong(1);
-
-    @PostConstruct
-    public void initOrderCounter() {
-        orderRepository.findTopByOrderByIdDesc().ifPresent(order -> {
-            String numero = order.getNumeroPedido();
-            if (numero != null && numero.startsWith("PED-")) {
-                try {
-                    // Formato PED-yyyyMMdd-XXXX
-                    String[] parts = numero.split("-");
-                    if (parts.length == 3) {
-                        String datePart = parts[1];
-                        String dateNow = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-
-                        if (datePart.equals(dateNow)) {
-                            long lastSeq = Long.parseLong(parts[2]);
-                            orderCounter.set(lastSeq + 1);
-                            System.out.println("Contador de pedidos sincronizado desde BD: Siguiente=" + (lastSeq + 1));
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error sincronizando contador de pedidos: " + e.getMessage());
-                }
-            }
-        });
-    }
+    private final TableService tableService;
+    private final RecipeService recipeService;
+    private final OrderOutboxService orderOutboxService;
+    private final OrderNumberService orderNumberService;
+    private final PricingService pricingService;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int LIMITE_BUSQUEDA_DEFECTO = 50;
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 200;
+    private static final Sort ORDEN_BUSQUEDA = Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id"));
 
     /**
      * Obtiene todos los pedidos
@@ -122,13 +108,75 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Busca pedidos con filtros y paginación por keyset sobre
+     * (fechaCreacion, id), del más reciente al más antiguo. Por defecto
+     * devuelve los pedidos sin items.
+     */
+    public OrderPageDTO searchOrders(OrderSearchRequest filtros) {
+        int limite = filtros.getLimite() == null ? LIMITE_BUSQUEDA_DEFECTO
+                : Math.max(1, Math.min(filtros.getLimite(), LIMITE_BUSQUEDA_MAXIMO));
+
+        LocalDateTime cursorFecha = null;
+        Long cursorId = null;
+        if (filtros.getCursor() != null && !filtros.getCursor().isBlank()) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(filtros.getCursor()),
+                        StandardCharsets.UTF_8).split("_");
+                cursorFecha = LocalDateTime.parse(partes[0]);
+                cursorId = Long.parseLong(partes[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        // Se pide una fila de más para saber si hay otra página
+        List<CustomerOrder> pedidos = orderRepository.findBy(
+                OrderSpecifications.search(filtros, cursorFecha, cursorId),
+                q -> q.sortBy(ORDEN_BUSQUEDA).limit(limite + 1).all());
+
+        boolean hayMas = pedidos.size() > limite;
+        if (hayMas) {
+            pedidos = pedidos.subList(0, limite);
+        }
+
+        List<OrderDTO> dtos;
+        if (filtros.isIncluirItems() && !pedidos.isEmpty()) {
+            // Los items se cargan aparte: paginar con un fetch de colección
+            // obligaría a Hibernate a paginar en memoria
+            Map<Long, CustomerOrder> conItems = orderRepository
+                    .findByIdIn(pedidos.stream().map(CustomerOrder::getId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(CustomerOrder::getId, Function.identity()));
+            dtos = pedidos.stream()
+                    .map(p -> toDTO(conItems.get(p.getId())))
+                    .collect(Collectors.toList());
+        } else {
+            dtos = pedidos.stream()
+                    .map(this::toSummaryDTO)
+                    .collect(Collectors.toList());
+        }
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            CustomerOrder ultimo = pedidos.get(pedidos.size() - 1);
+            siguienteCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (ultimo.getFechaCreacion() + "_" + ultimo.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return OrderPageDTO.builder()
+                .pedidos(dtos)
+                .siguienteCursor(siguienteCursor)
+                .build();
+    }
+
     /**
      * Crea un nuevo pedido
      */
     @Transactional
     public OrderDTO createOrder(CreateOrderRequest request) {
         // Generar número de pedido único
-        String numeroPedido = generateOrderNumber();
+        String numeroPedido = orderNumberService.nextOrderNumber();
 
         CustomerOrder order = CustomerOrder.builder()
                 .numeroPedido(numeroPedido)
@@ -150,7 +198,7 @@ public class OrderService {
                     .producto(product)
                     .nombreProducto(product.getNombre())
                     .cantidad(itemRequest.getCantidad())
-                    .precioUnitario(product.getPrecio())
+                    .precioUnitario(pricingService.unitPrice(product))
                     .observaciones(itemRequest.getObservaciones())
                     .build();
 
@@ -173,19 +221,11 @@ public class OrderService {
 
         CustomerOrder savedOrder = orderRepository.save(order);
 
-        // Actualizar stock (Consumo)
-        updateStock(savedOrder, true);
+        // Stock y mesa se actualizan después del commit (outbox)
+        orderOutboxService.enqueueStockConsumption(savedOrder, stockNeeds(savedOrder));
+        orderOutboxService.enqueueTableOccupancy(savedOrder);
 
-        // Actualizar estado de la mesa
-        tableRepository.findByNumero(request.getNumeroMesa()).ifPresent(table -> {
-            table.setEstado(TableStatus.OCCUPIED);
-            table.setPedidoActualId(savedOrder.getId());
-            table.setOcupantes(request.getPersonas());
-            table.setHoraInicio(LocalDateTime.now());
-            tableRepository.save(table);
-        });
-
-        return toDTO(savedOrder);
+        return publishChange(toDTO(savedOrder), OrderChangedEvent.Tipo.CREADO);
     }
 
     /**
@@ -208,7 +248,7 @@ public class OrderService {
                     .producto(product)
                     .nombreProducto(product.getNombre())
                     .cantidad(itemRequest.getCantidad())
-                    .precioUnitario(product.getPrecio())
+                    .precioUnitario(pricingService.unitPrice(product))
                     .observaciones(itemRequest.getObservaciones())
                     .build();
 
@@ -216,7 +256,7 @@ public class OrderService {
         }
 
         order.recalcularTotales();
-        return toDTO(orderRepository.save(order));
+        return publishChange(toDTO(orderRepository.save(order)), OrderChangedEvent.Tipo.ITEMS_AGREGADOS);
     }
 
     /**
@@ -233,8 +273,16 @@ public class OrderService {
         // deductStockForOrder(order);
         // }
 
+        OrderStatus estadoAnterior = order.getEstado();
         order.setEstado(nuevoEstado);
 
+        // Mantener los resúmenes diarios si el pedido entra o sale de PAGADO
+        if (nuevoEstado == OrderStatus.PAGADO && estadoAnterior != OrderStatus.PAGADO) {
+            salesRollupService.recordPayment(order);
+        } else if (estadoAnterior == OrderStatus.PAGADO && nuevoEstado != OrderStatus.PAGADO) {
+            salesRollupService.revertPayment(order);
+        }
+
         // Si el pedido se paga, NO liberar la mesa automáticamente
         // La mesa se libera explícitamente por el cliente o mozo
         /*
@@ -249,7 +297,7 @@ public class OrderService {
          * }
          */
 
-        return toDTO(orderRepository.save(order));
+        return publishChange(toDTO(orderRepository.save(order)), OrderChangedEvent.Tipo.ESTADO);
     }
 
     /**
@@ -272,15 +320,16 @@ public class OrderService {
         }
         order.recalcularTotales();
         order.setEstado(OrderStatus.PAGADO);
+        salesRollupService.recordPayment(order);
 
         // Actualizar estado de la mesa a PAGADA para indicar que ya pagaron pero no se
         // han ido
         tableRepository.findByNumero(order.getNumeroMesa()).ifPresent(table -> {
             table.setEstado(TableStatus.PAGADA);
-            tableRepository.save(table);
+            tableService.publishChange(tableRepository.save(table));
         });
 
-        return toDTO(orderRepository.save(order));
+        return publishChange(toDTO(orderRepository.save(order)), OrderChangedEvent.Tipo.PAGO);
     }
 
     /**
@@ -294,7 +343,7 @@ public class OrderService {
         order.setListoParaPagar(true);
         order.setMetodoPagoSolicitado(metodoPago);
 
-        return toDTO(orderRepository.save(order));
+        return publishChange(toDTO(orderRepository.save(order)), OrderChangedEvent.Tipo.PAGO);
     }
 
     /**
@@ -311,10 +360,10 @@ public class OrderService {
 
         order.setEstado(OrderStatus.CANCELADO);
 
-        // Restaurar stock
-        updateStock(order, false);
+        // Restaurar stock (o descartar el consumo si todavía no se aplicó)
+        orderOutboxService.enqueueStockRestoration(order, stockNeeds(order));
 
-        orderRepository.save(order);
+        publishChange(toDTO(orderRepository.save(order)), OrderChangedEvent.Tipo.ESTADO);
     }
 
     /**
@@ -335,23 +384,25 @@ public class OrderService {
         // el cliente
         // hasta que decida irse. Si el cliente ya se fue, el mozo libera la mesa.
 
+        OrderDTO dto = toDTO(order);
         orderRepository.delete(order);
+        publishChange(dto, OrderChangedEvent.Tipo.ELIMINADO);
     }
 
     /**
-     * Genera un número de pedido único
+     * Publica el cambio del pedido para los suscriptores en tiempo real
      */
-    private String generateOrderNumber() {
-        String date = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long counter = orderCounter.getAndIncrement();
-        return String.format("PED-%s-%04d", date, counter);
+    private OrderDTO publishChange(OrderDTO dto, OrderChangedEvent.Tipo tipo) {
+        eventPublisher.publishEvent(new OrderChangedEvent(dto, tipo));
+        return dto;
     }
 
     /**
      * Convierte entidad a DTO
      */
     private OrderDTO toDTO(CustomerOrder order) {
-        List<OrderItemDTO> itemDTOs = order.getItems().stream()
+        OrderDTO dto = toSummaryDTO(order);
+        dto.setItems(order.getItems().stream()
                 .map(item -> OrderItemDTO.builder()
                         .id(item.getId())
                         .productoId(item.getProducto() != null ? item.getProducto().getId() : null)
@@ -364,15 +415,20 @@ public class OrderService {
                         .subtotal(item.getSubtotal())
                         .observaciones(item.getObservaciones())
                         .build())
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+        return dto;
+    }
 
+    /**
+     * Convierte entidad a DTO sin items (filas de resumen)
+     */
+    private OrderDTO toSummaryDTO(CustomerOrder order) {
         return OrderDTO.builder()
                 .id(order.getId())
                 .numeroPedido(order.getNumeroPedido())
                 .numeroMesa(order.getNumeroMesa())
                 .personas(order.getPersonas())
                 .estado(order.getEstado())
-                .items(itemDTOs)
                 .subtotal(order.getSubtotal())
                 .propina(order.getPropina())
                 .total(order.getTotal())
@@ -394,102 +450,22 @@ public class OrderService {
                 order.getEstado() != OrderStatus.CANCELADO;
     }
 
-    private void updateStock(CustomerOrder order, boolean consume) {
+    /**
+     * Calcula los insumos que consume el pedido, agregados por item de stock
+     */
+    private Map<Long, Integer> stockNeeds(CustomerOrder order) {
+        Map<Long, Integer> cantidadesPorItem = new HashMap<>();
         for (OrderItem item : order.getItems()) {
             Product product = item.getProducto();
             if (product == null)
                 continue;
 
-            String ingredientesJson = product.getIngredientes();
-            if (ingredientesJson == null || ingredientesJson.isBlank()) {
-                // Fallback: intentar buscar por nombre del producto
-                stockItemRepository.findByNombre(product.getNombre()).ifPresent(stockItem -> {
-                    deductOrRestoreStock(stockItem, item.getCantidad(), consume, order.getNumeroPedido());
-                });
-                continue;
-            }
-
-            // Parsear ingredientes JSON: [{"nombre":"Lomo","cantidad":1},...]
-            try {
-                // Usamos un parsing simple sin dependencias externas
-                String cleaned = ingredientesJson.trim();
-                if (cleaned.startsWith("[") && cleaned.endsWith("]")) {
-                    cleaned = cleaned.substring(1, cleaned.length() - 1);
-                }
-
-                // Split por objetos JSON
-                String[] ingredientes = cleaned.split("\\},\\s*\\{");
-
-                for (String ingrediente : ingredientes) {
-                    // Limpiar y parsear cada ingrediente
-                    ingrediente = ingrediente.replace("{", "").replace("}", "").replace("\"", "");
-
-                    String nombreIngrediente = null;
-                    int cantidadIngrediente = 1;
-
-                    String[] props = ingrediente.split(",");
-                    for (String prop : props) {
-                        String[] kv = prop.split(":");
-                        if (kv.length == 2) {
-                            String key = kv[0].trim();
-                            String value = kv[1].trim();
-                            if (key.equals("nombre")) {
-                                nombreIngrediente = value;
-                            } else if (key.equals("cantidad")) {
-                                try {
-                                    cantidadIngrediente = Integer.parseInt(value);
-                                } catch (NumberFormatException e) {
-                                    cantidadIngrediente = 1;
-                                }
-                            }
-                        }
-                    }
-
-                    if (nombreIngrediente != null) {
-                        final String finalNombre = nombreIngrediente;
-                        final int finalCantidad = cantidadIngrediente * item.getCantidad();
-
-                        stockItemRepository.findByNombre(finalNombre).ifPresent(stockItem -> {
-                            deductOrRestoreStock(stockItem, finalCantidad, consume, order.getNumeroPedido());
-                        });
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println(
-                        "Error parseando ingredientes para producto " + product.getNombre() + ": " + e.getMessage());
+            // Receta compilada: ids de stock y cantidades, sin parseo por pedido
+            RecipeService.CompiledRecipe receta = recipeService.getRecipe(product.getId());
+            for (int i = 0; i < receta.size(); i++) {
+                cantidadesPorItem.merge(receta.stockItemId(i), receta.cantidad(i) * item.getCantidad(), Integer::sum);
             }
         }
-    }
-
-    private void deductOrRestoreStock(StockItem stockItem, int cantidad, boolean consume, String numeroPedido) {
-        int nuevaCantidad;
-        StockMovementType tipo;
-        String motivo;
-
-        if (consume) {
-            nuevaCantidad = stockItem.getCantidadActual() - cantidad;
-            tipo = StockMovementType.SALIDA;
-            motivo = "Venta Pedido #" + numeroPedido;
-            if (nuevaCantidad < 0) {
-                System.out.println("ADVERTENCIA: Stock negativo para " + stockItem.getNombre());
-            }
-        } else {
-            nuevaCantidad = stockItem.getCantidadActual() + cantidad;
-            tipo = StockMovementType.ENTRADA;
-            motivo = "Restauración (Cancelación) Pedido #" + numeroPedido;
-        }
-
-        stockItem.setCantidadActual(nuevaCantidad);
-        stockItemRepository.save(stockItem);
-
-        StockMovement movement = StockMovement.builder()
-                .item(stockItem)
-                .tipo(tipo)
-                .cantidad(cantidad)
-                .motivo(motivo)
-                .fecha(LocalDateTime.now())
-                .build();
-
-        stockMovementRepository.save(movement);
+        return cantidadesPorItem;
     }
 }
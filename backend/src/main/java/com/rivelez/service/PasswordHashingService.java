@@ -0,0 +1,120 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.AuthMetricsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hash y verificación de contraseñas en el executor acotado
+ * passwordHashExecutor, fuera del hilo de la request. Si el pool está
+ * saturado (cola llena o espera mayor al límite) lanza
+ * ServidorOcupadoException en lugar de encolar sin fin.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder completados = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder nanosHash = new LongAdder();
+    private final LongAdder nanosEspera = new LongAdder();
+    private final AtomicLong maximoNanosHash = new AtomicLong();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+            @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+            @Value("${auth.hash.timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * El pool de hash no admite más trabajo por ahora
+     */
+    public static class ServidorOcupadoException extends RuntimeException {
+
+        public ServidorOcupadoException() {
+            super("Servidor ocupado, reintente en unos segundos");
+        }
+    }
+
+    public boolean matches(String password, String hash) {
+        return run(() -> passwordEncoder.matches(password, hash));
+    }
+
+    public String encode(String password) {
+        return run(() -> passwordEncoder.encode(password));
+    }
+
+    /**
+     * Estado del pool y tiempos acumulados desde el arranque
+     */
+    public AuthMetricsDTO.HashPool getMetrics() {
+        long total = completados.sum();
+        return AuthMetricsDTO.HashPool.builder()
+                .hilos(executor.getMaxPoolSize())
+                .activos(executor.getActiveCount())
+                .enCola(executor.getThreadPoolExecutor().getQueue().size())
+                .capacidadCola(executor.getQueueCapacity())
+                .completados(total)
+                .rechazados(rechazados.sum())
+                .hashPromedioMs(total > 0 ? nanosHash.sum() / 1e6 / total : 0.0)
+                .hashMaximoMs(maximoNanosHash.get() / 1e6)
+                .esperaPromedioMs(total > 0 ? nanosEspera.sum() / 1e6 / total : 0.0)
+                .build();
+    }
+
+    private <T> T run(Callable<T> hash) {
+        long encolado = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long inicio = System.nanoTime();
+                nanosEspera.add(inicio - encolado);
+                try {
+                    return hash.call();
+                } finally {
+                    long duracion = System.nanoTime() - inicio;
+                    nanosHash.add(duracion);
+                    maximoNanosHash.accumulateAndGet(duracion, Math::max);
+                    completados.increment();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rechazados.increment();
+            throw new ServidorOcupadoException();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rechazados.increment();
+            log.warn("Hash de contraseña sin resolver en {} ms", timeoutMs);
+            throw new ServidorOcupadoException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServidorOcupadoException();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.OrderItemRequest;
+import com.rivelez.dto.QuoteDTO;
+import com.rivelez.dto.QuoteItemDTO;
+import com.rivelez.entity.Product;
+import com.rivelez.entity.Promotion;
+import com.rivelez.event.PromotionChangedEvent;
+import com.rivelez.repository.ProductRepository;
+import com.rivelez.repository.PromotionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Precios de venta con las promociones vigentes. Mantiene el mejor
+ * descuento de cada producto precalculado; el mapa se rearma cuando cambia
+ * una promoción y exactamente en el próximo inicio o fin de alguna, así
+ * ningún pedido evalúa promociones.
+ *
+ * Una promoción rige desde fechaInicio (inclusive) hasta fechaFin
+ * (exclusive) y solo para los productos asociados: sin productos no aplica.
+ */
+@Slf4j
+@Service
+public class PricingService {
+
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+    private final PromotionRepository promotionRepository;
+    private final ProductRepository productRepository;
+    private final TaskScheduler taskScheduler;
+
+    private volatile Map<Long, Descuento> descuentos = Map.of();
+    private ScheduledFuture<?> proximoCambio;
+    // Serializa los rearmados sin fijar hilos virtuales mientras leen la base
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PricingService(PromotionRepository promotionRepository,
+            ProductRepository productRepository,
+            @Qualifier("taskScheduler") TaskScheduler taskScheduler) {
+        this.promotionRepository = promotionRepository;
+        this.productRepository = productRepository;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Mejor descuento vigente de un producto
+     */
+    public static final class Descuento {
+
+        private final Long promocionId;
+        private final String promocion;
+        private final BigDecimal porcentaje;
+
+        Descuento(Promotion promocion) {
+            this.promocionId = promocion.getId();
+            this.promocion = promocion.getNombre();
+            this.porcentaje = BigDecimal.valueOf(promocion.getPorcentajeDescuento());
+        }
+
+        public Long getPromocionId() {
+            return promocionId;
+        }
+
+        public String getPromocion() {
+            return promocion;
+        }
+
+        public BigDecimal getPorcentaje() {
+            return porcentaje;
+        }
+    }
+
+    /**
+     * Precio unitario a cobrar hoy por el producto
+     */
+    public BigDecimal unitPrice(Product product) {
+        return apply(product.getPrecio(), descuentos.get(product.getId()));
+    }
+
+    /**
+     * Cotiza un carrito con los precios vigentes, sin guardar nada
+     */
+    public QuoteDTO quote(List<OrderItemRequest> items) {
+        Map<Long, Descuento> vigentes = descuentos;
+        List<QuoteItemDTO> lineas = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (OrderItemRequest itemRequest : items) {
+            Product product = productRepository.findById(itemRequest.getProductoId())
+                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + itemRequest.getProductoId()));
+            Descuento descuento = vigentes.get(product.getId());
+            BigDecimal cantidad = BigDecimal.valueOf(itemRequest.getCantidad());
+            BigDecimal precioUnitario = apply(product.getPrecio(), descuento);
+
+            lineas.add(QuoteItemDTO.builder()
+                    .productoId(product.getId())
+                    .nombreProducto(product.getNombre())
+                    .cantidad(itemRequest.getCantidad())
+                    .precioLista(product.getPrecio())
+                    .porcentajeDescuento(descuento != null ? descuento.getPorcentaje().doubleValue() : null)
+                    .promocion(descuento != null ? descuento.getPromocion() : null)
+                    .precioUnitario(precioUnitario)
+                    .subtotal(precioUnitario.multiply(cantidad))
+                    .build());
+            subtotal = subtotal.add(product.getPrecio().multiply(cantidad));
+            total = total.add(precioUnitario.multiply(cantidad));
+        }
+
+        return QuoteDTO.builder()
+                .items(lineas)
+                .subtotal(subtotal)
+                .descuento(subtotal.subtract(total))
+                .total(total)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * Rearma los descuentos una vez confirmado el cambio de promoción
+     */
+    @TransactionalEventListener
+    public void onPromotionChanged(PromotionChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Calcula el mejor descuento por producto con las promociones vigentes y
+     * programa el próximo rearmado en el siguiente inicio o fin
+     */
+    private void rebuild() {
+        lock.lock();
+        try {
+            build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void build() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, Descuento> nuevos = new HashMap<>();
+        LocalDateTime siguiente = null;
+
+        for (Promotion promocion : promotionRepository.findByActivaTrueAndFechaFinAfter(ahora)) {
+            if (promocion.getFechaInicio().isAfter(ahora)) {
+                siguiente = earliest(siguiente, promocion.getFechaInicio());
+                continue;
+            }
+            siguiente = earliest(siguiente, promocion.getFechaFin());
+            Descuento descuento = new Descuento(promocion);
+            for (Product product : promocion.getProductos()) {
+                nuevos.merge(product.getId(), descuento, PricingService::best);
+            }
+        }
+        descuentos = Map.copyOf(nuevos);
+
+        if (proximoCambio != null) {
+            proximoCambio.cancel(false);
+            proximoCambio = null;
+        }
+        if (siguiente != null) {
+            proximoCambio = taskScheduler.schedule(this::rebuild,
+                    siguiente.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        log.info("Descuentos vigentes: {} productos; próximo cambio: {}", nuevos.size(),
+                siguiente != null ? siguiente : "ninguno");
+    }
+
+    private static BigDecimal apply(BigDecimal precio, Descuento descuento) {
+        if (descuento == null) {
+            return precio;
+        }
+        return precio.multiply(CIEN.subtract(descuento.getPorcentaje()))
+                .divide(CIEN, 2, RoundingMode.HALF_UP);
+    }
+
+    // Mayor porcentaje; a igual porcentaje, la promoción más antigua
+    private static Descuento best(Descuento a, Descuento b) {
+        int comparacion = a.getPorcentaje().compareTo(b.getPorcentaje());
+        if (comparacion != 0) {
+            return comparacion > 0 ? a : b;
+        }
+        return a.getPromocionId() < b.getPromocionId() ? a : b;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime actual, LocalDateTime candidata) {
+        return actual == null || candidata.isBefore(actual) ? candidata : actual;
+    }
+}
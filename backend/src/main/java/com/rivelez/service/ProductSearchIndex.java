@@ -0,0 +1,234 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre nombre, ingredientes y descripción de
+ * los productos. Las palabras se normalizan con TextNormalizer y cada una
+ * de la búsqueda puede coincidir exacta, como prefijo ("napo" →
+ * "napolitana") o por trigramas para tolerar errores de tipeo.
+ *
+ * Admite altas, cambios y bajas de a un producto; las búsquedas concurrentes
+ * solo toman el lock de lectura.
+ */
+public class ProductSearchIndex {
+
+    private static final float PESO_NOMBRE = 3f;
+    private static final float PESO_INGREDIENTE = 2f;
+    private static final float PESO_DESCRIPCION = 1f;
+
+    private static final float CALIDAD_EXACTA = 1f;
+    private static final float CALIDAD_PREFIJO = 0.8f;
+    private static final float CALIDAD_APROXIMADA = 0.6f;
+    private static final float SIMILITUD_MINIMA = 0.5f;
+    private static final int LONGITUD_MINIMA_APROXIMADA = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, ProductDTO> productos = new HashMap<>();
+    // Palabra -> producto -> peso del mejor campo donde aparece
+    private final NavigableMap<String, Map<Long, Float>> palabras = new TreeMap<>();
+    // Trigrama -> palabras que lo contienen
+    private final Map<String, Set<String>> trigramas = new HashMap<>();
+    // Producto -> palabras indexadas, para poder quitarlo
+    private final Map<Long, Set<String>> palabrasPorProducto = new HashMap<>();
+
+    /**
+     * Agrega el producto o reemplaza su versión anterior
+     */
+    public void put(ProductDTO producto) {
+        Map<String, Float> pesos = new HashMap<>();
+        addField(pesos, producto.getNombre(), PESO_NOMBRE);
+        if (producto.getIngredientes() != null) {
+            producto.getIngredientes().forEach(ingrediente -> addField(pesos, ingrediente, PESO_INGREDIENTE));
+        }
+        addField(pesos, producto.getDescripcion(), PESO_DESCRIPCION);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(producto.getId());
+            productos.put(producto.getId(), producto);
+            pesos.forEach((palabra, peso) -> {
+                Map<Long, Float> lista = palabras.get(palabra);
+                if (lista == null) {
+                    lista = new HashMap<>();
+                    palabras.put(palabra, lista);
+                    for (String trigrama : TextNormalizer.trigrams(palabra)) {
+                        trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(palabra);
+                    }
+                }
+                lista.put(producto.getId(), peso);
+            });
+            palabrasPorProducto.put(producto.getId(), pesos.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza todo el contenido del índice
+     */
+    public void putAll(Collection<ProductDTO> lista) {
+        lock.writeLock().lock();
+        try {
+            productos.clear();
+            palabras.clear();
+            trigramas.clear();
+            palabrasPorProducto.clear();
+            lista.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita el producto del índice
+     */
+    public void remove(Long productoId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return productos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos que contengan todas las palabras de la consulta. Si
+     * ninguno las contiene todas, devuelve los que contienen más. Ordena por
+     * relevancia y luego por nombre.
+     */
+    public List<ProductDTO> search(String consulta, int limite) {
+        List<String> tokens = TextNormalizer.tokens(consulta);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, float[]> puntajes = new HashMap<>(); // [coincidencias, puntaje]
+            for (String token : tokens) {
+                Map<Long, Float> mejores = match(token);
+                mejores.forEach((id, puntaje) -> {
+                    float[] acumulado = puntajes.computeIfAbsent(id, k -> new float[2]);
+                    acumulado[0]++;
+                    acumulado[1] += puntaje;
+                });
+            }
+
+            float maxCoincidencias = 0;
+            for (float[] acumulado : puntajes.values()) {
+                maxCoincidencias = Math.max(maxCoincidencias, acumulado[0]);
+            }
+            float requeridas = maxCoincidencias;
+
+            List<ProductDTO> resultado = new ArrayList<>();
+            puntajes.entrySet().stream()
+                    .filter(e -> e.getValue()[0] == requeridas)
+                    .sorted(Comparator.<Map.Entry<Long, float[]>>comparingDouble(e -> -e.getValue()[1])
+                            .thenComparing(e -> productos.get(e.getKey()).getNombre()))
+                    .limit(limite)
+                    .forEach(e -> resultado.add(productos.get(e.getKey())));
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mejor puntaje de cada producto para una palabra de la consulta
+     */
+    private Map<Long, Float> match(String token) {
+        Map<Long, Float> mejores = new HashMap<>();
+        Map<Long, Float> exacta = palabras.get(token);
+        if (exacta != null) {
+            collect(mejores, exacta, CALIDAD_EXACTA);
+        }
+        for (Map<Long, Float> lista : palabras.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+            collect(mejores, lista, CALIDAD_PREFIJO);
+        }
+        if (token.length() >= LONGITUD_MINIMA_APROXIMADA) {
+            matchSimilar(token, mejores);
+        }
+        return mejores;
+    }
+
+    /**
+     * Palabras que comparten suficientes trigramas con la consulta
+     * (coeficiente de Dice), ej. "milaneza" → "milanesa"
+     */
+    private void matchSimilar(String token, Map<Long, Float> mejores) {
+        Set<String> trigramasConsulta = new HashSet<>(TextNormalizer.trigrams(token));
+        Map<String, Integer> compartidos = new HashMap<>();
+        for (String trigrama : trigramasConsulta) {
+            Set<String> candidatas = trigramas.get(trigrama);
+            if (candidatas != null) {
+                candidatas.forEach(palabra -> compartidos.merge(palabra, 1, Integer::sum));
+            }
+        }
+        compartidos.forEach((palabra, cantidad) -> {
+            if (palabra.startsWith(token)) {
+                return; // Ya contada como exacta o prefijo
+            }
+            // Una palabra de n letras tiene n trigramas con bordes
+            float similitud = 2f * cantidad / (trigramasConsulta.size() + palabra.length());
+            if (similitud >= SIMILITUD_MINIMA) {
+                collect(mejores, palabras.get(palabra), CALIDAD_APROXIMADA * similitud);
+            }
+        });
+    }
+
+    private static void collect(Map<Long, Float> mejores, Map<Long, Float> lista, float calidad) {
+        lista.forEach((id, peso) -> mejores.merge(id, peso * calidad, Math::max));
+    }
+
+    private static void addField(Map<String, Float> pesos, String texto, float peso) {
+        for (String palabra : TextNormalizer.tokens(texto)) {
+            pesos.merge(palabra, peso, Math::max);
+        }
+    }
+
+    private void removeUnlocked(Long productoId) {
+        Set<String> anteriores = palabrasPorProducto.remove(productoId);
+        productos.remove(productoId);
+        if (anteriores == null) {
+            return;
+        }
+        for (String palabra : anteriores) {
+            Map<Long, Float> lista = palabras.get(palabra);
+            lista.remove(productoId);
+            if (lista.isEmpty()) {
+                palabras.remove(palabra);
+                for (String trigrama : TextNormalizer.trigrams(palabra)) {
+                    Set<String> conTrigrama = trigramas.get(trigrama);
+                    conTrigrama.remove(palabra);
+                    if (conTrigrama.isEmpty()) {
+                        trigramas.remove(trigrama);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.ProductDTO;
+import com.rivelez.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Búsqueda de productos sobre ProductSearchIndex. El índice se carga al
+ * iniciar y se actualiza producto por producto con cada cambio confirmado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    private final ProductService productService;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    /**
+     * Busca productos por nombre, ingredientes o descripción, ignorando
+     * tildes y mayúsculas. Ordenados por relevancia.
+     */
+    public List<ProductDTO> search(String consulta, int limite) {
+        return index.search(consulta, limite);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        index.putAll(productService.getAllProducts());
+        log.info("Índice de búsqueda de productos cargado: {} productos", index.size());
+    }
+
+    /**
+     * Reindexa el producto una vez confirmada la transacción
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isEliminado()) {
+            index.remove(event.getProductoId());
+            return;
+        }
+        index.put(productService.getProductById(event.getProductoId()));
+    }
+}
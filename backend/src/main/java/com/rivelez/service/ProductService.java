@@ -7,8 +7,10 @@ import com.rivelez.dto.ProductDTO;
 import com.rivelez.dto.ProductRequest;
 import com.rivelez.entity.Product;
 import com.rivelez.entity.ProductCategory;
+import com.rivelez.event.ProductChangedEvent;
 import com.rivelez.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,7 +25,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final TypeReference<List<String>> TIPO_INGREDIENTES = new TypeReference<>() {
+    };
+
     private final ProductRepository productRepository;
+    private final RecipeService recipeService;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -71,15 +78,6 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * Busca productos por nombre
-     */
-    public List<ProductDTO> searchProducts(String query) {
-        return productRepository.findByNombreContainingIgnoreCase(query).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
-    }
-
     /**
      * Crea un nuevo producto
      */
@@ -95,7 +93,12 @@ public class ProductService {
                 .ingredientes(toJson(request.getIngredientes()))
                 .build();
 
-        return toDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        if (request.getIngredientes() != null) {
+            recipeService.replaceIngredients(saved, request.getIngredientes());
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), false));
+        return toDTO(saved);
     }
 
     /**
@@ -126,9 +129,12 @@ public class ProductService {
         }
         if (request.getIngredientes() != null) {
             product.setIngredientes(toJson(request.getIngredientes()));
+            recipeService.replaceIngredients(product, request.getIngredientes());
         }
 
-        return toDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), false));
+        return toDTO(saved);
     }
 
     /**
@@ -140,7 +146,9 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         product.setDisponible(!product.isDisponible());
-        return toDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), false));
+        return toDTO(saved);
     }
 
     /**
@@ -151,7 +159,9 @@ public class ProductService {
         if (!productRepository.existsById(id)) {
             throw new RuntimeException("Producto no encontrado");
         }
+        recipeService.deleteIngredients(id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, true));
     }
 
     /**
@@ -174,8 +184,7 @@ public class ProductService {
         if (json == null || json.isEmpty())
             return Collections.emptyList();
         try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {
-            });
+            return objectMapper.readValue(json, TIPO_INGREDIENTES);
         } catch (JsonProcessingException e) {
             return Collections.emptyList();
         }
@@ -4,15 +4,20 @@ import com.rivelez.dto.CreatePromotionRequest;
 import com.rivelez.dto.PromotionDTO;
 import com.rivelez.entity.Product;
 import com.rivelez.entity.Promotion;
+import com.rivelez.event.ProductChangedEvent;
+import com.rivelez.event.PromotionChangedEvent;
 import com.rivelez.repository.ProductRepository;
 import com.rivelez.repository.PromotionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +26,21 @@ public class PromotionService {
 
     private final PromotionRepository promotionRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong generacionActivas = new AtomicLong();
+    private volatile ActivasCacheadas activas;
+
+    private static final class ActivasCacheadas {
+
+        private final List<PromotionDTO> promociones;
+        private final LocalDateTime expira;
+
+        private ActivasCacheadas(List<PromotionDTO> promociones, LocalDateTime expira) {
+            this.promociones = promociones;
+            this.expira = expira;
+        }
+    }
 
     public List<PromotionDTO> getAllPromotions() {
         return promotionRepository.findAll().stream()
@@ -28,10 +48,35 @@ public class PromotionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Promociones vigentes. Se cachean hasta el próximo inicio o fin de
+     * alguna promoción, o hasta que se confirme un cambio.
+     */
     public List<PromotionDTO> getActivePromotions() {
-        return promotionRepository.findActivePromotions(LocalDateTime.now()).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        LocalDateTime ahora = LocalDateTime.now();
+        ActivasCacheadas cacheadas = activas;
+        if (cacheadas != null && ahora.isBefore(cacheadas.expira)) {
+            return cacheadas.promociones;
+        }
+
+        long generacion = generacionActivas.get();
+        List<PromotionDTO> promociones = new ArrayList<>();
+        LocalDateTime expira = LocalDateTime.MAX;
+        for (Promotion promotion : promotionRepository.findByActivaTrueAndFechaFinAfter(ahora)) {
+            if (promotion.getFechaInicio().isAfter(ahora)) {
+                expira = earliest(expira, promotion.getFechaInicio());
+            } else {
+                expira = earliest(expira, promotion.getFechaFin());
+                promociones.add(toDTO(promotion));
+            }
+        }
+        promociones = List.copyOf(promociones);
+
+        // Si hubo un cambio mientras se leía, no se guarda lo leído
+        if (generacionActivas.get() == generacion) {
+            activas = new ActivasCacheadas(promociones, expira);
+        }
+        return promociones;
     }
 
     public PromotionDTO getPromotionById(Long id) {
@@ -57,7 +102,9 @@ public class PromotionService {
             promotion.setProductos(products);
         }
 
-        return toDTO(promotionRepository.save(promotion));
+        Promotion saved = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(saved.getId(), false));
+        return toDTO(saved);
     }
 
     @Transactional
@@ -66,6 +113,7 @@ public class PromotionService {
             throw new RuntimeException("Promoción no encontrada");
         }
         promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PromotionChangedEvent(id, true));
     }
 
     @Transactional
@@ -73,7 +121,35 @@ public class PromotionService {
         Promotion promotion = promotionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Promoción no encontrada"));
         promotion.setActiva(!promotion.isActiva());
-        return toDTO(promotionRepository.save(promotion));
+        Promotion saved = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(saved.getId(), false));
+        return toDTO(saved);
+    }
+
+    /**
+     * Invalida las promociones vigentes cacheadas una vez confirmado el
+     * cambio de una promoción
+     */
+    @TransactionalEventListener
+    public void onPromotionChanged(PromotionChangedEvent event) {
+        invalidateActive();
+    }
+
+    /**
+     * Los DTOs cacheados incluyen los nombres de los productos
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateActive();
+    }
+
+    private void invalidateActive() {
+        generacionActivas.incrementAndGet();
+        activas = null;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime actual, LocalDateTime candidata) {
+        return candidata.isBefore(actual) ? candidata : actual;
     }
 
     private PromotionDTO toDTO(Promotion promotion) {
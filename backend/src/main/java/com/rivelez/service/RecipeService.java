@@ -0,0 +1,266 @@
+package com.rivelez.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rivelez.entity.Product;
+import com.rivelez.entity.ProductIngredient;
+import com.rivelez.entity.StockItem;
+import com.rivelez.event.ProductChangedEvent;
+import com.rivelez.event.StockItemCreatedEvent;
+import com.rivelez.repository.ProductIngredientRepository;
+import com.rivelez.repository.ProductRepository;
+import com.rivelez.repository.StockItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de recetas: mantiene la relación producto -> items de stock
+ * (tabla product_ingredients) y una versión compilada en memoria que usa
+ * OrderService para descontar stock sin parsear JSON ni buscar por nombre.
+ *
+ * Un producto sin receta se descuenta del item de stock con su mismo nombre
+ * (bebidas); ese respaldo se resuelve al compilar, no se guarda como receta.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecipeService {
+
+    private final ProductIngredientRepository productIngredientRepository;
+    private final ProductRepository productRepository;
+    private final StockItemRepository stockItemRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Long, CompiledRecipe> recetas = new ConcurrentHashMap<>();
+
+    /**
+     * Receta compilada: arreglos paralelos de ids de stock y cantidades por
+     * unidad de producto
+     */
+    public static final class CompiledRecipe {
+
+        static final CompiledRecipe EMPTY = new CompiledRecipe(new long[0], new int[0]);
+
+        private final long[] stockItemIds;
+        private final int[] cantidades;
+
+        CompiledRecipe(long[] stockItemIds, int[] cantidades) {
+            this.stockItemIds = stockItemIds;
+            this.cantidades = cantidades;
+        }
+
+        public int size() {
+            return stockItemIds.length;
+        }
+
+        public long stockItemId(int i) {
+            return stockItemIds[i];
+        }
+
+        public int cantidad(int i) {
+            return cantidades[i];
+        }
+    }
+
+    /**
+     * Obtiene la receta compilada de un producto (vacía si no tiene)
+     */
+    public CompiledRecipe getRecipe(Long productoId) {
+        return recetas.getOrDefault(productoId, CompiledRecipe.EMPTY);
+    }
+
+    /**
+     * Reemplaza la receta de un producto a partir de los nombres de
+     * ingredientes. Conserva la cantidad de los ingredientes que ya estaban en
+     * la receta; los nuevos consumen 1 unidad. Los nombres sin item de stock
+     * se ignoran.
+     */
+    @Transactional
+    public void replaceIngredients(Product producto, List<String> nombres) {
+        Map<Long, Integer> cantidadesPrevias = productIngredientRepository.findByProductoId(producto.getId())
+                .stream()
+                .collect(Collectors.toMap(r -> r.getStockItem().getId(), ProductIngredient::getCantidad));
+
+        productIngredientRepository.deleteByProductoId(producto.getId());
+
+        Map<String, Integer> cantidadesPorNombre = new LinkedHashMap<>();
+        for (String nombre : nombres) {
+            if (nombre != null && !nombre.isBlank()) {
+                cantidadesPorNombre.merge(nombre.trim(), 1, Integer::sum);
+            }
+        }
+
+        for (StockItem stockItem : stockItemRepository.findByNombreIn(cantidadesPorNombre.keySet())) {
+            int cantidad = cantidadesPrevias.getOrDefault(stockItem.getId(),
+                    cantidadesPorNombre.get(stockItem.getNombre()));
+            productIngredientRepository.save(ProductIngredient.builder()
+                    .producto(producto)
+                    .stockItem(stockItem)
+                    .cantidad(cantidad)
+                    .build());
+        }
+    }
+
+    /**
+     * Elimina la receta de un producto
+     */
+    @Transactional
+    public void deleteIngredients(Long productoId) {
+        productIngredientRepository.deleteByProductoId(productoId);
+    }
+
+    /**
+     * Recompila la receta del producto una vez confirmada la transacción
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isEliminado()) {
+            recetas.remove(event.getProductoId());
+            return;
+        }
+        List<Object[]> filas = productIngredientRepository.findCompactByProductoId(event.getProductoId());
+        if (filas.isEmpty()) {
+            productRepository.findById(event.getProductoId())
+                    .flatMap(producto -> stockItemRepository.findByNombre(producto.getNombre()))
+                    .ifPresentOrElse(stockItem -> compileSameName(event.getProductoId(), stockItem.getId()),
+                            () -> recetas.remove(event.getProductoId()));
+            return;
+        }
+        compile(event.getProductoId(), filas);
+    }
+
+    /**
+     * Un item de stock nuevo pasa a ser el respaldo de los productos sin
+     * receta que tienen su mismo nombre, una vez confirmada su creación
+     */
+    @TransactionalEventListener
+    public void onStockItemCreated(StockItemCreatedEvent event) {
+        for (Product producto : productRepository.findByNombre(event.getNombre())) {
+            if (!recetas.containsKey(producto.getId())) {
+                compileSameName(producto.getId(), event.getStockItemId());
+            }
+        }
+    }
+
+    /**
+     * Al iniciar: migra las recetas que solo existen como JSON en
+     * Product.ingredientes y compila el índice en memoria
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void init() {
+        migrateLegacyIngredients();
+
+        Map<Long, List<Object[]>> filasPorProducto = productIngredientRepository.findAllCompact().stream()
+                .collect(Collectors.groupingBy(fila -> (Long) fila[0]));
+        recetas.clear();
+        filasPorProducto.forEach(this::compile);
+
+        Map<String, Long> stockPorNombre = stockItemRepository.findAll().stream()
+                .collect(Collectors.toMap(StockItem::getNombre, StockItem::getId));
+        for (Product producto : productRepository.findAll()) {
+            Long stockItemId = stockPorNombre.get(producto.getNombre());
+            if (stockItemId != null && !recetas.containsKey(producto.getId())) {
+                compileSameName(producto.getId(), stockItemId);
+            }
+        }
+        log.info("Recetas compiladas: {}", recetas.size());
+    }
+
+    private void compileSameName(Long productoId, Long stockItemId) {
+        recetas.put(productoId, new CompiledRecipe(new long[] { stockItemId }, new int[] { 1 }));
+    }
+
+    private void compile(Long productoId, List<Object[]> filas) {
+        if (filas.isEmpty()) {
+            recetas.remove(productoId);
+            return;
+        }
+
+        long[] stockItemIds = new long[filas.size()];
+        int[] cantidades = new int[filas.size()];
+        for (int i = 0; i < filas.size(); i++) {
+            stockItemIds[i] = (Long) filas.get(i)[1];
+            cantidades[i] = (Integer) filas.get(i)[2];
+        }
+        recetas.put(productoId, new CompiledRecipe(stockItemIds, cantidades));
+    }
+
+    /**
+     * Crea las filas de receta para productos que todavía no las tienen,
+     * leyendo el JSON heredado ([{"nombre":..,"cantidad":..}] o ["nombre",..])
+     */
+    private void migrateLegacyIngredients() {
+        Set<Long> conReceta = new HashSet<>(productIngredientRepository.findProductIdsWithRecipe());
+        List<Product> pendientes = productRepository.findAll().stream()
+                .filter(p -> !conReceta.contains(p.getId()))
+                .collect(Collectors.toList());
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        Map<String, StockItem> stockPorNombre = stockItemRepository.findAll().stream()
+                .collect(Collectors.toMap(StockItem::getNombre, Function.identity()));
+
+        int migrados = 0;
+        for (Product producto : pendientes) {
+            Map<String, Integer> ingredientes = parseLegacyIngredients(producto);
+
+            List<ProductIngredient> filas = new ArrayList<>();
+            ingredientes.forEach((nombre, cantidad) -> {
+                StockItem stockItem = stockPorNombre.get(nombre);
+                if (stockItem != null) {
+                    filas.add(ProductIngredient.builder()
+                            .producto(producto)
+                            .stockItem(stockItem)
+                            .cantidad(cantidad)
+                            .build());
+                }
+            });
+
+            if (!filas.isEmpty()) {
+                productIngredientRepository.saveAll(filas);
+                migrados++;
+            }
+        }
+        log.info("Recetas migradas desde JSON: {}", migrados);
+    }
+
+    private Map<String, Integer> parseLegacyIngredients(Product producto) {
+        Map<String, Integer> ingredientes = new HashMap<>();
+        String json = producto.getIngredientes();
+        if (json == null || json.isBlank()) {
+            return ingredientes;
+        }
+
+        try {
+            for (JsonNode nodo : objectMapper.readTree(json)) {
+                if (nodo.isTextual()) {
+                    ingredientes.merge(nodo.asText().trim(), 1, Integer::sum);
+                } else if (nodo.hasNonNull("nombre")) {
+                    int cantidad = Math.max(1, nodo.path("cantidad").asInt(1));
+                    ingredientes.merge(nodo.get("nombre").asText().trim(), cantidad, Integer::sum);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error parseando ingredientes para producto {}: {}", producto.getNombre(), e.getMessage());
+        }
+        return ingredientes;
+    }
+}
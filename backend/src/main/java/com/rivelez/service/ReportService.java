@@ -1,17 +1,21 @@
 package com.rivelez.service;
 
 import com.rivelez.dto.ReportSummaryDTO;
+import com.rivelez.dto.SalesHeatmapDTO;
 import com.rivelez.dto.ReportSummaryDTO.VentaDiaria;
 import com.rivelez.dto.ReportSummaryDTO.ProductoVendido;
-import com.rivelez.entity.CustomerOrder;
-import com.rivelez.entity.OrderItem;
-import com.rivelez.entity.OrderStatus;
+import com.rivelez.entity.DailySales;
 import com.rivelez.entity.PaymentMethod;
-import com.rivelez.entity.TableStatus;
+import com.rivelez.event.SalesRollupChangedEvent;
+import com.rivelez.repository.DailyPaymentMethodRepository;
+import com.rivelez.repository.DailyProductSalesRepository;
+import com.rivelez.repository.DailySalesRepository;
+import com.rivelez.repository.HourlySalesRepository;
 import com.rivelez.repository.OrderRepository;
-import com.rivelez.repository.TableRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -19,6 +23,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -29,38 +34,47 @@ import java.util.stream.Collectors;
 public class ReportService {
 
     private final OrderRepository orderRepository;
-    private final TableRepository tableRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final DailyPaymentMethodRepository dailyPaymentMethodRepository;
+    private final HourlySalesRepository hourlySalesRepository;
+    private final OccupancyService occupancyService;
+
+    private static final int TOP_PRODUCTOS = 5;
+    private static final int ULTIMAS_VENTAS = 10;
+    private static final int MAPAS_DE_CALOR_EN_CACHE = 32;
+    private static final List<String> DIAS_SEMANA = List.of("Lunes", "Martes", "Miércoles", "Jueves", "Viernes",
+            "Sábado", "Domingo");
+
+    // Mapas de calor por rango "desde|hasta"; se descartan cuando cambian las ventas de un día del rango
+    private final Map<String, SalesHeatmapDTO> mapasDeCalor = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SalesHeatmapDTO> eldest) {
+            return size() > MAPAS_DE_CALOR_EN_CACHE;
+        }
+    };
+    // Evita guardar un mapa calculado antes de un cambio que llegó mientras se calculaba
+    private final AtomicLong generacionVentas = new AtomicLong();
 
     /**
-     * Obtiene resumen de reportes para los últimos N días
+     * Obtiene resumen de reportes para los últimos N días (hoy y los N días
+     * anteriores completos). Se lee de los resúmenes diarios que mantiene
+     * SalesRollupService: a lo sumo una fila por día y métrica.
      */
     public ReportSummaryDTO getSummary(int dias) {
-        LocalDateTime desde = LocalDateTime.now().minusDays(dias).withHour(0).withMinute(0);
-        LocalDateTime desdePeriodoAnterior = desde.minusDays(dias);
-
-        // Pedidos del período actual (solo PAGADOS)
-        List<CustomerOrder> pedidosActuales = orderRepository.findByFechaCreacionBetween(desde, LocalDateTime.now())
-                .stream()
-                .filter(o -> o.getEstado() == OrderStatus.PAGADO)
-                .collect(Collectors.toList());
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = hoy.minusDays(dias);
+        LocalDate desdePeriodoAnterior = desde.minusDays(dias);
 
-        // Pedidos del período anterior para comparación
-        List<CustomerOrder> pedidosAnteriores = orderRepository.findByFechaCreacionBetween(desdePeriodoAnterior, desde)
-                .stream()
-                .filter(o -> o.getEstado() == OrderStatus.PAGADO)
-                .collect(Collectors.toList());
+        // Pedidos PAGADOS del período actual y del anterior para comparación
+        Object[] actuales = dailySalesRepository.sumBetween(desde, hoy).get(0);
+        Object[] anteriores = dailySalesRepository.sumBetween(desdePeriodoAnterior, desde.minusDays(1)).get(0);
 
         // Calcular KPIs
-        BigDecimal ventasTotales = pedidosActuales.stream()
-                .map(CustomerOrder::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal ventasAnteriores = pedidosAnteriores.stream()
-                .map(CustomerOrder::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long totalPedidos = pedidosActuales.size();
-        long pedidosAnterioresCount = pedidosAnteriores.size();
+        long totalPedidos = actuales[0] != null ? ((Number) actuales[0]).longValue() : 0L;
+        long pedidosAnterioresCount = anteriores[0] != null ? ((Number) anteriores[0]).longValue() : 0L;
+        BigDecimal ventasTotales = actuales[1] != null ? (BigDecimal) actuales[1] : BigDecimal.ZERO;
+        BigDecimal ventasAnteriores = anteriores[1] != null ? (BigDecimal) anteriores[1] : BigDecimal.ZERO;
 
         BigDecimal ticketPromedio = totalPedidos > 0
                 ? ventasTotales.divide(BigDecimal.valueOf(totalPedidos), 2, RoundingMode.HALF_UP)
@@ -76,33 +90,114 @@ public class ReportService {
         double ticketCambio = calcularCambioPorcentual(ticketAnterior, ticketPromedio);
 
         // Ventas por día
-        List<VentaDiaria> ventasPorDia = calcularVentasPorDia(pedidosActuales, dias);
+        List<VentaDiaria> ventasPorDia = calcularVentasPorDia(hoy, dias);
 
         // Top productos
-        List<ProductoVendido> topProductos = calcularTopProductos(pedidosActuales, 5);
+        List<ProductoVendido> topProductos = calcularTopProductos(desde, hoy, TOP_PRODUCTOS);
 
         // Últimas ventas
-        List<ReportSummaryDTO.UltimaVenta> ultimasVentas = calcularUltimasVentas(10);
+        List<ReportSummaryDTO.UltimaVenta> ultimasVentas = calcularUltimasVentas(ULTIMAS_VENTAS);
 
         // Métodos de pago
-        Map<String, Double> metodosPago = calcularMetodosPago(pedidosActuales);
+        Map<String, Double> metodosPago = calcularMetodosPago(desde, hoy);
 
-        // Ocupación actual (mesas no disponibles / total mesas * 100)
-        double ocupacionActual = calcularOcupacionActual();
+        // Ocupación promedio de mesas en el horario de atención, de la serie por minuto
+        double ocupacionPromedio = occupancyService.getAverage(desde, hoy);
+        double ocupacionAnterior = occupancyService.getAverage(desdePeriodoAnterior, desde.minusDays(1));
+        double ocupacionCambio = calcularCambioPorcentual(ocupacionAnterior, ocupacionPromedio);
 
         return ReportSummaryDTO.builder()
                 .ventasTotales(ventasTotales)
                 .totalPedidos(totalPedidos)
                 .ticketPromedio(ticketPromedio)
-                .ocupacionPromedio(ocupacionActual)
+                .ocupacionPromedio(ocupacionPromedio)
                 .ventasCambio(ventasCambio)
                 .pedidosCambio(pedidosCambio)
                 .ticketCambio(ticketCambio)
-                .ocupacionCambio(0.0) // Requiere histórico para comparar
+                .ocupacionCambio(ocupacionCambio)
                 .ventasPorDia(ventasPorDia)
                 .topProductos(topProductos)
                 .ultimasVentas(ultimasVentas)
                 .metodosPago(metodosPago)
+                .ocupacionPorHora(occupancyService.getByHour(desde, hoy))
+                .build();
+    }
+
+    /**
+     * Mapa de calor de pedidos pagados y ventas por día de la semana y hora
+     * para el rango (ambos inclusive). Se arma en una pasada sobre el resumen
+     * por hora y queda en cache hasta que cambien las ventas del rango.
+     */
+    public SalesHeatmapDTO getHeatmap(LocalDate desde, LocalDate hasta) {
+        String clave = desde + "|" + hasta;
+        synchronized (mapasDeCalor) {
+            SalesHeatmapDTO cacheado = mapasDeCalor.get(clave);
+            if (cacheado != null) {
+                return cacheado;
+            }
+        }
+
+        long generacion = generacionVentas.get();
+        SalesHeatmapDTO mapa = calcularMapaDeCalor(desde, hasta);
+        synchronized (mapasDeCalor) {
+            if (generacionVentas.get() == generacion) {
+                mapasDeCalor.put(clave, mapa);
+            }
+        }
+        return mapa;
+    }
+
+    /**
+     * Descarta los mapas de calor que incluyen días con ventas modificadas,
+     * una vez confirmada la transacción
+     */
+    @TransactionalEventListener
+    public void onSalesRollupChanged(SalesRollupChangedEvent event) {
+        generacionVentas.incrementAndGet();
+        synchronized (mapasDeCalor) {
+            mapasDeCalor.values().removeIf(mapa -> !mapa.getHasta().isBefore(event.getDesde())
+                    && !mapa.getDesde().isAfter(event.getHasta()));
+        }
+    }
+
+    private SalesHeatmapDTO calcularMapaDeCalor(LocalDate desde, LocalDate hasta) {
+        // Acumuladores [dia * 24 + hora]; las ventas en centavos
+        long[] pedidos = new long[7 * 24];
+        long[] centavos = new long[7 * 24];
+        for (Object[] fila : hourlySalesRepository.findRowsBetween(desde, hasta)) {
+            int celda = (((LocalDate) fila[0]).getDayOfWeek().getValue() - 1) * 24 + (Integer) fila[1];
+            pedidos[celda] += ((Number) fila[2]).longValue();
+            centavos[celda] += ((BigDecimal) fila[3]).movePointRight(2).longValue();
+        }
+
+        int[] ocurrencias = new int[7];
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            ocurrencias[fecha.getDayOfWeek().getValue() - 1]++;
+        }
+
+        long[][] pedidosPorCelda = new long[7][24];
+        BigDecimal[][] ventasPorCelda = new BigDecimal[7][24];
+        long maxPedidos = 0;
+        long maxCentavos = 0;
+        for (int dia = 0; dia < 7; dia++) {
+            for (int hora = 0; hora < 24; hora++) {
+                int celda = dia * 24 + hora;
+                pedidosPorCelda[dia][hora] = pedidos[celda];
+                ventasPorCelda[dia][hora] = BigDecimal.valueOf(centavos[celda], 2);
+                maxPedidos = Math.max(maxPedidos, pedidos[celda]);
+                maxCentavos = Math.max(maxCentavos, centavos[celda]);
+            }
+        }
+
+        return SalesHeatmapDTO.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .dias(DIAS_SEMANA)
+                .ocurrencias(ocurrencias)
+                .pedidos(pedidosPorCelda)
+                .ventas(ventasPorCelda)
+                .maxPedidos(maxPedidos)
+                .maxVentas(BigDecimal.valueOf(maxCentavos, 2))
                 .build();
     }
 
@@ -123,75 +218,55 @@ public class ReportService {
         return ((double) (actual - anterior) / anterior) * 100;
     }
 
-    private List<VentaDiaria> calcularVentasPorDia(List<CustomerOrder> pedidos, int dias) {
+    private double calcularCambioPorcentual(double anterior, double actual) {
+        if (anterior == 0) {
+            return actual > 0 ? 100.0 : 0.0;
+        }
+        return ((actual - anterior) / anterior) * 100;
+    }
+
+    private List<VentaDiaria> calcularVentasPorDia(LocalDate hoy, int dias) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM");
-        Map<LocalDate, List<CustomerOrder>> porDia = pedidos.stream()
-                .collect(Collectors.groupingBy(o -> o.getFechaCreacion().toLocalDate()));
+        Map<LocalDate, DailySales> porDia = new HashMap<>();
+        for (DailySales dia : dailySalesRepository.findByFechaBetweenOrderByFecha(hoy.minusDays(dias - 1), hoy)) {
+            porDia.put(dia.getFecha(), dia);
+        }
 
         List<VentaDiaria> resultado = new ArrayList<>();
-        LocalDate hoy = LocalDate.now();
 
         for (int i = dias - 1; i >= 0; i--) {
             LocalDate fecha = hoy.minusDays(i);
-            List<CustomerOrder> delDia = porDia.getOrDefault(fecha, Collections.emptyList());
-
-            BigDecimal ventas = delDia.stream()
-                    .map(CustomerOrder::getTotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            DailySales delDia = porDia.get(fecha);
 
             resultado.add(VentaDiaria.builder()
                     .fecha(fecha.format(formatter))
-                    .ventas(ventas)
-                    .pedidos((long) delDia.size())
+                    .ventas(delDia != null ? delDia.getVentas() : BigDecimal.ZERO)
+                    .pedidos(delDia != null ? delDia.getPedidos() : 0L)
                     .build());
         }
 
         return resultado;
     }
 
-    private List<ProductoVendido> calcularTopProductos(List<CustomerOrder> pedidos, int limit) {
-        Map<String, Long> cantidades = new HashMap<>();
-        Map<String, BigDecimal> ingresos = new HashMap<>();
-
-        for (CustomerOrder pedido : pedidos) {
-            for (OrderItem item : pedido.getItems()) {
-                String nombre = item.getNombreProducto();
-                cantidades.merge(nombre, (long) item.getCantidad(), Long::sum);
-                ingresos.merge(nombre, item.getSubtotal(), BigDecimal::add);
-            }
-        }
-
-        return cantidades.entrySet().stream()
-                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-                .limit(limit)
-                .map(e -> ProductoVendido.builder()
-                        .nombre(e.getKey())
-                        .cantidad(e.getValue())
-                        .ingresos(ingresos.get(e.getKey()))
+    private List<ProductoVendido> calcularTopProductos(LocalDate desde, LocalDate hasta, int limit) {
+        return dailyProductSalesRepository.findTopSoldBetween(desde, hasta, Limit.of(limit)).stream()
+                .map(fila -> ProductoVendido.builder()
+                        .nombre((String) fila[0])
+                        .cantidad(((Number) fila[1]).longValue())
+                        .ingresos((BigDecimal) fila[2])
                         .build())
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Double> calcularMetodosPago(List<CustomerOrder> pedidos) {
-        Map<PaymentMethod, Long> conteo = pedidos.stream()
-                .filter(o -> o.getMetodoPago() != null)
-                .collect(Collectors.groupingBy(CustomerOrder::getMetodoPago, Collectors.counting()));
+    private Map<String, Double> calcularMetodosPago(LocalDate desde, LocalDate hasta) {
+        List<Object[]> conteo = dailyPaymentMethodRepository.sumByMetodoPagoBetween(desde, hasta);
 
-        long total = conteo.values().stream().mapToLong(Long::longValue).sum();
+        long total = conteo.stream().mapToLong(fila -> ((Number) fila[1]).longValue()).sum();
 
         Map<String, Double> resultado = new HashMap<>();
         if (total > 0) {
-            for (Map.Entry<PaymentMethod, Long> entry : conteo.entrySet()) {
-                String nombre = switch (entry.getKey()) {
-                    case EFECTIVO -> "Efectivo";
-                    case TARJETA_DEBITO -> "Débito";
-                    case TARJETA_CREDITO -> "Crédito";
-                    case TRANSFERENCIA -> "Transferencia";
-                    case QR -> "QR";
-                    case OTRO -> "Otro";
-                    default -> "Otro";
-                };
-                resultado.put(nombre, (entry.getValue() * 100.0) / total);
+            for (Object[] fila : conteo) {
+                resultado.put(nombreMetodoPago((PaymentMethod) fila[0]), (((Number) fila[1]).longValue() * 100.0) / total);
             }
         }
 
@@ -201,47 +276,28 @@ public class ReportService {
     private List<ReportSummaryDTO.UltimaVenta> calcularUltimasVentas(int limit) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM HH:mm");
 
-        // Obtener pedidos pagados ordenados por fecha descendente
-        return orderRepository.findAll().stream()
-                .filter(o -> o.getEstado() == OrderStatus.PAGADO)
-                .sorted((a, b) -> b.getFechaCreacion().compareTo(a.getFechaCreacion()))
-                .limit(limit)
-                .map(order -> {
-                    String metodoPagoNombre = "";
-                    if (order.getMetodoPago() != null) {
-                        metodoPagoNombre = switch (order.getMetodoPago()) {
-                            case EFECTIVO -> "Efectivo";
-                            case TARJETA_DEBITO -> "Débito";
-                            case TARJETA_CREDITO -> "Crédito";
-                            case TRANSFERENCIA -> "Transferencia";
-                            case QR -> "QR";
-                            case OTRO -> "Otro";
-                            default -> "Otro";
-                        };
-                    }
-
-                    return ReportSummaryDTO.UltimaVenta.builder()
-                            .numeroPedido(order.getNumeroPedido())
-                            .numeroMesa(order.getNumeroMesa())
-                            .total(order.getTotal())
-                            .metodoPago(metodoPagoNombre)
-                            .fecha(order.getFechaCreacion().format(formatter))
-                            .cantidadItems(order.getItems() != null ? order.getItems().size() : 0)
-                            .build();
-                })
+        // Pedidos pagados ordenados por fecha descendente
+        return orderRepository.findLatestPaid(Limit.of(limit)).stream()
+                .map(fila -> ReportSummaryDTO.UltimaVenta.builder()
+                        .numeroPedido((String) fila[0])
+                        .numeroMesa((Integer) fila[1])
+                        .total((BigDecimal) fila[2])
+                        .metodoPago(fila[3] != null ? nombreMetodoPago((PaymentMethod) fila[3]) : "")
+                        .fecha(((LocalDateTime) fila[4]).format(formatter))
+                        .cantidadItems(((Number) fila[5]).intValue())
+                        .build())
                 .collect(Collectors.toList());
     }
 
-    private double calcularOcupacionActual() {
-        var mesas = tableRepository.findAll();
-        if (mesas.isEmpty()) {
-            return 0.0;
-        }
-
-        long mesasOcupadas = mesas.stream()
-                .filter(m -> m.getEstado() != TableStatus.AVAILABLE)
-                .count();
-
-        return (mesasOcupadas * 100.0) / mesas.size();
+    private String nombreMetodoPago(PaymentMethod metodoPago) {
+        return switch (metodoPago) {
+            case EFECTIVO -> "Efectivo";
+            case TARJETA_DEBITO -> "Débito";
+            case TARJETA_CREDITO -> "Crédito";
+            case TRANSFERENCIA -> "Transferencia";
+            case QR -> "QR";
+            case OTRO -> "Otro";
+            default -> "Otro";
+        };
     }
 }
@@ -0,0 +1,92 @@
+package com.rivelez.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de reseñas por cantidad de estrellas (1 a 5), globales y por
+ * mesa. Sin locks: cada estrella es un LongAdder, y la cantidad y la suma
+ * salen del mismo histograma, así el promedio siempre corresponde a una
+ * lectura de los cinco contadores.
+ */
+public final class ReviewAggregates {
+
+    private final Contadores global = new Contadores();
+    private final Map<Integer, Contadores> porMesa = new ConcurrentHashMap<>();
+
+    /**
+     * Histograma de estrellas de un conjunto de reseñas
+     */
+    public static final class Contadores {
+
+        private final LongAdder[] estrellas = new LongAdder[5];
+
+        Contadores() {
+            for (int i = 0; i < estrellas.length; i++) {
+                estrellas[i] = new LongAdder();
+            }
+        }
+
+        void add(int calificacion, long cantidad) {
+            estrellas[calificacion - 1].add(cantidad);
+        }
+
+        /**
+         * Reseñas por estrella; el índice 0 es una estrella
+         */
+        public long[] getHistograma() {
+            long[] histograma = new long[estrellas.length];
+            for (int i = 0; i < estrellas.length; i++) {
+                histograma[i] = estrellas[i].sum();
+            }
+            return histograma;
+        }
+
+        public static long total(long[] histograma) {
+            long total = 0;
+            for (long cantidad : histograma) {
+                total += cantidad;
+            }
+            return total;
+        }
+
+        public static double promedio(long[] histograma) {
+            long total = 0;
+            long suma = 0;
+            for (int i = 0; i < histograma.length; i++) {
+                total += histograma[i];
+                suma += histograma[i] * (i + 1);
+            }
+            return total > 0 ? (double) suma / total : 0.0;
+        }
+    }
+
+    /**
+     * Suma reseñas de una mesa con la calificación dada
+     */
+    public void add(Integer numeroMesa, int calificacion, long cantidad) {
+        if (calificacion < 1 || calificacion > 5) {
+            throw new IllegalArgumentException("Calificación fuera de rango: " + calificacion);
+        }
+        global.add(calificacion, cantidad);
+        porMesa.computeIfAbsent(numeroMesa, mesa -> new Contadores()).add(calificacion, cantidad);
+    }
+
+    public Contadores getGlobal() {
+        return global;
+    }
+
+    public Optional<Contadores> getMesa(Integer numeroMesa) {
+        return Optional.ofNullable(porMesa.get(numeroMesa));
+    }
+
+    /**
+     * Contadores de cada mesa con reseñas, por número de mesa
+     */
+    public Map<Integer, Contadores> getMesas() {
+        return new TreeMap<>(porMesa);
+    }
+}
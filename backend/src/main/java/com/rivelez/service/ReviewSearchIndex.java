@@ -0,0 +1,167 @@
+package com.rivelez.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre los comentarios de las reseñas. Las
+ * palabras se normalizan con TextNormalizer (sin tildes ni mayúsculas) y
+ * cada palabra buscada coincide con las que empiezan igual ("demora" →
+ * "demoras", "demorado"); con varias palabras tienen que estar todas.
+ *
+ * Las reseñas no se modifican ni se borran, así que solo admite altas. Cada
+ * reseña ocupa una posición en arreglos paralelos con lo necesario para
+ * filtrar y ordenar sin ir a la base.
+ */
+public class ReviewSearchIndex {
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Posición -> datos de la reseña
+    private long[] ids = new long[CAPACIDAD_INICIAL];
+    private LocalDateTime[] fechas = new LocalDateTime[CAPACIDAD_INICIAL];
+    private byte[] calificaciones = new byte[CAPACIDAD_INICIAL];
+    private int[] mesas = new int[CAPACIDAD_INICIAL];
+    private int cantidad;
+
+    // Palabra -> posiciones de las reseñas que la contienen
+    private final NavigableMap<String, Posiciones> palabras = new TreeMap<>();
+
+    private static final class Posiciones {
+
+        private int[] valores = new int[4];
+        private int cantidad;
+
+        void add(int posicion) {
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = posicion;
+        }
+    }
+
+    /**
+     * Agrega una reseña; sin palabras indexables no ocupa lugar
+     */
+    public void add(Long id, LocalDateTime fecha, int calificacion, int numeroMesa, String comentario) {
+        Set<String> tokens = new LinkedHashSet<>(TextNormalizer.tokens(comentario));
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (cantidad == ids.length) {
+                int capacidad = cantidad * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                fechas = Arrays.copyOf(fechas, capacidad);
+                calificaciones = Arrays.copyOf(calificaciones, capacidad);
+                mesas = Arrays.copyOf(mesas, capacidad);
+            }
+            int posicion = cantidad++;
+            ids[posicion] = id;
+            fechas[posicion] = fecha;
+            calificaciones[posicion] = (byte) calificacion;
+            mesas[posicion] = numeroMesa;
+            for (String token : tokens) {
+                palabras.computeIfAbsent(token, t -> new Posiciones()).add(posicion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cantidad;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de las reseñas cuyo comentario tiene todas las palabras del texto y
+     * que cumplen los filtros (null = sin filtro), posteriores al cursor en
+     * el orden (fecha DESC, id DESC). Devuelve a lo sumo limite, en ese orden.
+     */
+    public List<Long> search(String texto, Integer calificacionMin, Integer calificacionMax, Integer mesa,
+            LocalDateTime cursorFecha, Long cursorId, int limite) {
+        Set<String> tokens = new LinkedHashSet<>(TextNormalizer.tokens(texto));
+        if (tokens.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet coincidencias = null;
+            for (String token : tokens) {
+                BitSet conToken = new BitSet(cantidad);
+                for (Posiciones posiciones : palabras.subMap(token, true, token + Character.MAX_VALUE, false)
+                        .values()) {
+                    for (int i = 0; i < posiciones.cantidad; i++) {
+                        conToken.set(posiciones.valores[i]);
+                    }
+                }
+                if (coincidencias == null) {
+                    coincidencias = conToken;
+                } else {
+                    coincidencias.and(conToken);
+                }
+                if (coincidencias.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // Ascendente en (fecha, id): el tope del heap es el peor de los elegidos
+            Comparator<Integer> orden = (a, b) -> {
+                int comparacion = fechas[a].compareTo(fechas[b]);
+                return comparacion != 0 ? comparacion : Long.compare(ids[a], ids[b]);
+            };
+            PriorityQueue<Integer> elegidas = new PriorityQueue<>(limite + 1, orden);
+
+            for (int p = coincidencias.nextSetBit(0); p >= 0; p = coincidencias.nextSetBit(p + 1)) {
+                if ((calificacionMin != null && calificaciones[p] < calificacionMin)
+                        || (calificacionMax != null && calificaciones[p] > calificacionMax)
+                        || (mesa != null && mesas[p] != mesa)) {
+                    continue;
+                }
+                if (cursorFecha != null) {
+                    int comparacion = fechas[p].compareTo(cursorFecha);
+                    if (comparacion > 0 || (comparacion == 0 && ids[p] >= cursorId)) {
+                        continue;
+                    }
+                }
+                if (elegidas.size() < limite) {
+                    elegidas.add(p);
+                } else if (orden.compare(p, elegidas.peek()) > 0) {
+                    elegidas.poll();
+                    elegidas.add(p);
+                }
+            }
+
+            List<Integer> posiciones = new ArrayList<>(elegidas);
+            posiciones.sort(orden.reversed());
+            List<Long> resultado = new ArrayList<>(posiciones.size());
+            for (int posicion : posiciones) {
+                resultado.add(ids[posicion]);
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,21 +1,62 @@
 package com.rivelez.service;
 
 import com.rivelez.dto.ReviewDTO;
+import com.rivelez.dto.ReviewPageDTO;
+import com.rivelez.dto.ReviewSearchRequest;
+import com.rivelez.dto.ReviewStatsDTO;
 import com.rivelez.entity.Review;
 import com.rivelez.repository.ReviewRepository;
-import lombok.RequiredArgsConstructor;
+import com.rivelez.repository.ReviewSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Reseñas de clientes. El promedio, los histogramas de estrellas y las
+ * últimas reseñas se mantienen en memoria: se cargan al iniciar y se
+ * actualizan en cada reseña creada, así /average y /recent no leen la base.
+ * Lo mismo el índice de texto de los comentarios que usa la búsqueda.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ReviewService {
 
-    private final ReviewRepository reviewRepository;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int LIMITE_BUSQUEDA_DEFECTO = 20;
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 100;
+    private static final Sort ORDEN_BUSQUEDA = Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id"));
+
+    private final ReviewRepository reviewRepository;
+    private final ReviewAggregates agregados = new ReviewAggregates();
+    private final ReviewSearchIndex indice = new ReviewSearchIndex();
+
+    // Anillo con las últimas reseñas; siguiente es la posición a escribir. Guardado con su propio lock
+    private final ReviewDTO[] recientes;
+    private int siguiente;
+    private int cantidadRecientes;
+
+    // Las reseñas con id hasta este valor las cuenta la carga inicial
+    private volatile long cargadasHasta = Long.MAX_VALUE;
+
+    public ReviewService(ReviewRepository reviewRepository,
+            @Value("${reviews.recent-capacity:50}") int capacidadRecientes) {
+        this.reviewRepository = reviewRepository;
+        this.recientes = new ReviewDTO[capacidadRecientes];
+    }
 
     public ReviewDTO create(ReviewDTO dto) {
         if (dto.getNumeroPedido() != null && reviewRepository.existsByNumeroPedido(dto.getNumeroPedido())) {
@@ -30,15 +71,35 @@ public class ReviewService {
                 .build();
 
         Review saved = reviewRepository.save(review);
-        return toDTO(saved);
+        ReviewDTO creada = toDTO(saved);
+        if (saved.getId() > cargadasHasta) {
+            agregados.add(saved.getNumeroMesa(), saved.getCalificacion(), 1);
+            if (saved.getComentario() != null) {
+                indice.add(saved.getId(), saved.getFechaCreacion(), saved.getCalificacion(), saved.getNumeroMesa(),
+                        saved.getComentario());
+            }
+            synchronized (recientes) {
+                recientes[siguiente] = creada;
+                siguiente = (siguiente + 1) % recientes.length;
+                cantidadRecientes = Math.min(cantidadRecientes + 1, recientes.length);
+            }
+        }
+        return creada;
     }
 
+    /**
+     * Últimas reseñas, de la más nueva a la más vieja (hasta la capacidad del
+     * anillo)
+     */
     public List<ReviewDTO> getRecent(int limit) {
-        return reviewRepository.findTop10ByOrderByFechaCreacionDesc()
-                .stream()
-                .limit(limit)
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        synchronized (recientes) {
+            int cantidad = Math.max(0, Math.min(limit, cantidadRecientes));
+            List<ReviewDTO> resultado = new ArrayList<>(cantidad);
+            for (int i = 1; i <= cantidad; i++) {
+                resultado.add(recientes[Math.floorMod(siguiente - i, recientes.length)]);
+            }
+            return resultado;
+        }
     }
 
     public List<ReviewDTO> getAll() {
@@ -48,15 +109,132 @@ public class ReviewService {
                 .collect(Collectors.toList());
     }
 
-    public double getAverageRating() {
-        List<Review> reviews = reviewRepository.findAll();
-        if (reviews.isEmpty()) {
-            return 0.0;
+    /**
+     * Busca reseñas con filtros y paginación por keyset sobre
+     * (fechaCreacion, id), de la más reciente a la más antigua. Con texto los
+     * candidatos salen del índice en memoria; sin texto, de la base.
+     */
+    public ReviewPageDTO search(ReviewSearchRequest filtros) {
+        int limite = filtros.getLimite() == null ? LIMITE_BUSQUEDA_DEFECTO
+                : Math.max(1, Math.min(filtros.getLimite(), LIMITE_BUSQUEDA_MAXIMO));
+        if (filtros.getCalificacionMin() != null && filtros.getCalificacionMax() != null
+                && filtros.getCalificacionMin() > filtros.getCalificacionMax()) {
+            throw new RuntimeException("Rango de calificación inválido");
+        }
+
+        LocalDateTime cursorFecha = null;
+        Long cursorId = null;
+        if (filtros.getCursor() != null && !filtros.getCursor().isBlank()) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(filtros.getCursor()),
+                        StandardCharsets.UTF_8).split("_");
+                cursorFecha = LocalDateTime.parse(partes[0]);
+                cursorId = Long.parseLong(partes[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        // Se pide una fila de más para saber si hay otra página
+        List<Review> resenas;
+        if (filtros.getTexto() != null && !filtros.getTexto().isBlank()) {
+            List<Long> ids = indice.search(filtros.getTexto(), filtros.getCalificacionMin(),
+                    filtros.getCalificacionMax(), filtros.getMesa(), cursorFecha, cursorId, limite + 1);
+            Map<Long, Review> porId = reviewRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Review::getId, Function.identity()));
+            resenas = ids.stream().map(porId::get).collect(Collectors.toList());
+        } else {
+            resenas = reviewRepository.findBy(ReviewSpecifications.search(filtros, cursorFecha, cursorId),
+                    q -> q.sortBy(ORDEN_BUSQUEDA).limit(limite + 1).all());
+        }
+
+        boolean hayMas = resenas.size() > limite;
+        if (hayMas) {
+            resenas = resenas.subList(0, limite);
+        }
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            Review ultima = resenas.get(resenas.size() - 1);
+            siguienteCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (ultima.getFechaCreacion() + "_" + ultima.getId()).getBytes(StandardCharsets.UTF_8));
         }
-        return reviews.stream()
-                .mapToInt(Review::getCalificacion)
-                .average()
-                .orElse(0.0);
+
+        return ReviewPageDTO.builder()
+                .resenas(resenas.stream().map(this::toDTO).collect(Collectors.toList()))
+                .siguienteCursor(siguienteCursor)
+                .build();
+    }
+
+    /**
+     * Promedio e histograma de todas las reseñas
+     */
+    public ReviewStatsDTO getStats() {
+        return toStats(null, agregados.getGlobal().getHistograma());
+    }
+
+    /**
+     * Promedio e histograma de las reseñas de una mesa
+     */
+    public ReviewStatsDTO getStats(Integer numeroMesa) {
+        return toStats(numeroMesa, agregados.getMesa(numeroMesa)
+                .map(ReviewAggregates.Contadores::getHistograma)
+                .orElseGet(() -> new long[5]));
+    }
+
+    /**
+     * Promedio e histograma de cada mesa con reseñas
+     */
+    public List<ReviewStatsDTO> getStatsByTable() {
+        List<ReviewStatsDTO> resultado = new ArrayList<>();
+        for (Map.Entry<Integer, ReviewAggregates.Contadores> mesa : agregados.getMesas().entrySet()) {
+            resultado.add(toStats(mesa.getKey(), mesa.getValue().getHistograma()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga inicial de contadores y últimas reseñas hasta el id más alto
+     * actual; las reseñas posteriores las suma create
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        Long maximo = reviewRepository.findMaxId();
+        long hasta = maximo != null ? maximo : 0L;
+        cargadasHasta = hasta;
+
+        for (Object[] fila : reviewRepository.countByMesaAndCalificacion(hasta)) {
+            agregados.add((Integer) fila[0], (Integer) fila[1], ((Number) fila[2]).longValue());
+        }
+        for (Object[] fila : reviewRepository.findCommentRows(hasta)) {
+            indice.add((Long) fila[0], (LocalDateTime) fila[1], (Integer) fila[2], (Integer) fila[3],
+                    (String) fila[4]);
+        }
+
+        List<Review> ultimas = reviewRepository.findByIdLessThanEqualOrderByFechaCreacionDescIdDesc(hasta,
+                Limit.of(recientes.length));
+        synchronized (recientes) {
+            // Quedan detrás de las que se hayan creado durante la carga
+            for (Review review : ultimas) {
+                if (cantidadRecientes == recientes.length) {
+                    break;
+                }
+                recientes[Math.floorMod(siguiente - cantidadRecientes - 1, recientes.length)] = toDTO(review);
+                cantidadRecientes++;
+            }
+        }
+        ReviewStatsDTO stats = getStats();
+        log.info("Reseñas cargadas: {} (promedio {}), {} comentarios indexados", stats.getTotal(),
+                String.format("%.2f", stats.getPromedio()), indice.size());
+    }
+
+    private ReviewStatsDTO toStats(Integer numeroMesa, long[] histograma) {
+        return ReviewStatsDTO.builder()
+                .numeroMesa(numeroMesa)
+                .promedio(ReviewAggregates.Contadores.promedio(histograma))
+                .total(ReviewAggregates.Contadores.total(histograma))
+                .estrellas(histograma)
+                .build();
     }
 
     private ReviewDTO toDTO(Review review) {
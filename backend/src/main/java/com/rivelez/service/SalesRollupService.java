@@ -0,0 +1,277 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.RollupCheckDTO;
+import com.rivelez.dto.RollupCheckDTO.Diferencia;
+import com.rivelez.entity.CustomerOrder;
+import com.rivelez.entity.OrderItem;
+import com.rivelez.event.SalesRollupChangedEvent;
+import com.rivelez.repository.DailySalesRepository;
+import com.rivelez.repository.HourlySalesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Resúmenes diarios de ventas (daily_sales, daily_product_sales,
+ * daily_payment_method y hourly_sales por hora) para que los reportes lean
+ * a lo sumo una fila por día (u hora) en lugar de recorrer los pedidos.
+ *
+ * Se actualizan en la misma transacción que cobra o descobra un pedido, por
+ * la fecha de creación del pedido, igual que filtraban los reportes. Para
+ * cargar históricos o corregir diferencias se recalculan desde orders.
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    // Agregados calculados desde los pedidos, por día; parámetros [desde, hasta)
+    private static final String SQL_PEDIDOS_VENTAS = "SELECT CAST(fecha_creacion AS DATE) AS fecha, COUNT(*) AS pedidos, "
+            + "SUM(total) AS ventas FROM orders WHERE estado = 'PAGADO' AND fecha_creacion >= ? AND fecha_creacion < ? "
+            + "GROUP BY CAST(fecha_creacion AS DATE)";
+    private static final String SQL_PEDIDOS_PRODUCTOS = "SELECT CAST(o.fecha_creacion AS DATE) AS fecha, "
+            + "i.nombre_producto AS nombre_producto, SUM(i.cantidad) AS cantidad, "
+            + "SUM(i.precio_unitario * i.cantidad) AS ingresos FROM orders o JOIN order_items i ON i.order_id = o.id "
+            + "WHERE o.estado = 'PAGADO' AND o.fecha_creacion >= ? AND o.fecha_creacion < ? "
+            + "GROUP BY CAST(o.fecha_creacion AS DATE), i.nombre_producto";
+    private static final String SQL_PEDIDOS_METODOS = "SELECT CAST(fecha_creacion AS DATE) AS fecha, metodo_pago, "
+            + "COUNT(*) AS pedidos FROM orders WHERE estado = 'PAGADO' AND metodo_pago IS NOT NULL "
+            + "AND fecha_creacion >= ? AND fecha_creacion < ? GROUP BY CAST(fecha_creacion AS DATE), metodo_pago";
+    private static final String SQL_PEDIDOS_HORAS = "SELECT CAST(fecha_creacion AS DATE) AS fecha, "
+            + "HOUR(fecha_creacion) AS hora, COUNT(*) AS pedidos, SUM(total) AS ventas FROM orders "
+            + "WHERE estado = 'PAGADO' AND fecha_creacion >= ? AND fecha_creacion < ? "
+            + "GROUP BY CAST(fecha_creacion AS DATE), HOUR(fecha_creacion)";
+
+    // Resúmenes guardados; parámetros [desde, hasta]
+    private static final String SQL_VENTAS = "SELECT fecha, pedidos, ventas FROM daily_sales WHERE fecha BETWEEN ? AND ?";
+    private static final String SQL_PRODUCTOS = "SELECT fecha, nombre_producto, cantidad, ingresos FROM daily_product_sales "
+            + "WHERE fecha BETWEEN ? AND ?";
+    private static final String SQL_METODOS = "SELECT fecha, metodo_pago, pedidos FROM daily_payment_method "
+            + "WHERE fecha BETWEEN ? AND ?";
+    private static final String SQL_HORAS = "SELECT fecha, hora, pedidos, ventas FROM hourly_sales "
+            + "WHERE fecha BETWEEN ? AND ?";
+
+    private static final String SQL_SUMAR_VENTAS = "INSERT INTO daily_sales (fecha, pedidos, ventas) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE pedidos = pedidos + ?, ventas = ventas + ?";
+    private static final String SQL_SUMAR_PRODUCTO = "INSERT INTO daily_product_sales (fecha, nombre_producto, cantidad, "
+            + "ingresos) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE cantidad = cantidad + ?, ingresos = ingresos + ?";
+    private static final String SQL_SUMAR_METODO = "INSERT INTO daily_payment_method (fecha, metodo_pago, pedidos) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE pedidos = pedidos + ?";
+    private static final String SQL_SUMAR_HORA = "INSERT INTO hourly_sales (fecha, hora, pedidos, ventas) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE pedidos = pedidos + ?, ventas = ventas + ?";
+
+    private static final String SQL_RANGO_PEDIDOS = "SELECT MIN(fecha_creacion), MAX(fecha_creacion) FROM orders "
+            + "WHERE estado = 'PAGADO'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DailySalesRepository dailySalesRepository;
+    private final HourlySalesRepository hourlySalesRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaccion;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate,
+            DailySalesRepository dailySalesRepository,
+            HourlySalesRepository hourlySalesRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailySalesRepository = dailySalesRepository;
+        this.hourlySalesRepository = hourlySalesRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Suma el pedido recién pagado a los resúmenes de su día (en la
+     * transacción actual)
+     */
+    public void recordPayment(CustomerOrder order) {
+        apply(order, 1);
+    }
+
+    /**
+     * Descuenta de los resúmenes un pedido que deja de estar pagado
+     */
+    public void revertPayment(CustomerOrder order) {
+        apply(order, -1);
+    }
+
+    /**
+     * Recalcula los resúmenes del rango de días desde la tabla orders. Los
+     * días sin pedidos pagados quedan sin filas. Conviene correrlo fuera de
+     * horario: bloquea los resúmenes del rango mientras dura.
+     */
+    public void rebuild(LocalDate desde, LocalDate hasta) {
+        Object[] rango = { desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay() };
+        transaccion.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM daily_sales WHERE fecha BETWEEN ? AND ?", desde, hasta);
+            jdbcTemplate.update("DELETE FROM daily_product_sales WHERE fecha BETWEEN ? AND ?", desde, hasta);
+            jdbcTemplate.update("DELETE FROM daily_payment_method WHERE fecha BETWEEN ? AND ?", desde, hasta);
+            jdbcTemplate.update("DELETE FROM hourly_sales WHERE fecha BETWEEN ? AND ?", desde, hasta);
+            jdbcTemplate.update("INSERT INTO daily_sales (fecha, pedidos, ventas) " + SQL_PEDIDOS_VENTAS, rango);
+            jdbcTemplate.update("INSERT INTO daily_product_sales (fecha, nombre_producto, cantidad, ingresos) "
+                    + SQL_PEDIDOS_PRODUCTOS, rango);
+            jdbcTemplate.update("INSERT INTO daily_payment_method (fecha, metodo_pago, pedidos) "
+                    + SQL_PEDIDOS_METODOS, rango);
+            jdbcTemplate.update("INSERT INTO hourly_sales (fecha, hora, pedidos, ventas) " + SQL_PEDIDOS_HORAS, rango);
+            eventPublisher.publishEvent(new SalesRollupChangedEvent(desde, hasta));
+        });
+        log.info("Resúmenes de ventas recalculados del {} al {}", desde, hasta);
+    }
+
+    /**
+     * Recalcula los resúmenes de todos los días con pedidos pagados
+     */
+    public void rebuildAll() {
+        LocalDate[] rango = paidOrdersRange();
+        if (rango != null) {
+            rebuild(rango[0], rango[1]);
+        }
+    }
+
+    /**
+     * Compara los resúmenes del rango contra lo que da la tabla orders.
+     * Un día o clave sin fila cuenta como cero.
+     */
+    public RollupCheckDTO check(LocalDate desde, LocalDate hasta) {
+        Object[] rango = { desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay() };
+        List<Diferencia> diferencias = new ArrayList<>();
+
+        compare("daily_sales", null, new String[] { "pedidos", "ventas" },
+                jdbcTemplate.queryForList(SQL_PEDIDOS_VENTAS, rango),
+                jdbcTemplate.queryForList(SQL_VENTAS, desde, hasta), diferencias);
+        compare("daily_product_sales", "nombre_producto", new String[] { "cantidad", "ingresos" },
+                jdbcTemplate.queryForList(SQL_PEDIDOS_PRODUCTOS, rango),
+                jdbcTemplate.queryForList(SQL_PRODUCTOS, desde, hasta), diferencias);
+        compare("daily_payment_method", "metodo_pago", new String[] { "pedidos" },
+                jdbcTemplate.queryForList(SQL_PEDIDOS_METODOS, rango),
+                jdbcTemplate.queryForList(SQL_METODOS, desde, hasta), diferencias);
+        compare("hourly_sales", "hora", new String[] { "pedidos", "ventas" },
+                jdbcTemplate.queryForList(SQL_PEDIDOS_HORAS, rango),
+                jdbcTemplate.queryForList(SQL_HORAS, desde, hasta), diferencias);
+
+        if (!diferencias.isEmpty()) {
+            log.warn("Resúmenes de ventas con {} diferencias entre {} y {}", diferencias.size(), desde, hasta);
+        }
+        return RollupCheckDTO.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .consistente(diferencias.isEmpty())
+                .diferencias(diferencias)
+                .build();
+    }
+
+    /**
+     * Carga inicial: si los resúmenes están vacíos (primer arranque con esta
+     * versión o datos demo) se calculan desde los pedidos existentes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (dailySalesRepository.count() == 0 || hourlySalesRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+
+    private void apply(CustomerOrder order, int signo) {
+        LocalDate fecha = order.getFechaCreacion().toLocalDate();
+        BigDecimal total = order.getTotal().multiply(BigDecimal.valueOf(signo));
+        jdbcTemplate.update(SQL_SUMAR_VENTAS, fecha, signo, total, signo, total);
+        jdbcTemplate.update(SQL_SUMAR_HORA, fecha, order.getFechaCreacion().getHour(), signo, total, signo, total);
+
+        // Ordenados por nombre para tomar los locks siempre en el mismo orden
+        Map<String, long[]> cantidades = new TreeMap<>();
+        Map<String, BigDecimal> ingresos = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            cantidades.computeIfAbsent(item.getNombreProducto(), k -> new long[1])[0] += item.getCantidad();
+            ingresos.merge(item.getNombreProducto(), item.getSubtotal(), BigDecimal::add);
+        }
+        List<Object[]> filas = new ArrayList<>(cantidades.size());
+        cantidades.forEach((nombre, cantidad) -> {
+            long unidades = cantidad[0] * signo;
+            BigDecimal importe = ingresos.get(nombre).multiply(BigDecimal.valueOf(signo));
+            filas.add(new Object[] { fecha, nombre, unidades, importe, unidades, importe });
+        });
+        if (!filas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_SUMAR_PRODUCTO, filas);
+        }
+
+        if (order.getMetodoPago() != null) {
+            jdbcTemplate.update(SQL_SUMAR_METODO, fecha, order.getMetodoPago().name(), signo, signo);
+        }
+        eventPublisher.publishEvent(new SalesRollupChangedEvent(fecha, fecha));
+    }
+
+    private void compare(String tabla, String columnaClave, String[] metricas, List<Map<String, Object>> esperadas,
+            List<Map<String, Object>> actuales, List<Diferencia> diferencias) {
+        Map<String, Map<String, Object>> porClaveEsperada = index(esperadas, columnaClave);
+        Map<String, Map<String, Object>> porClaveActual = index(actuales, columnaClave);
+
+        TreeSet<String> claves = new TreeSet<>(porClaveEsperada.keySet());
+        claves.addAll(porClaveActual.keySet());
+        for (String clave : claves) {
+            String esperado = describe(porClaveEsperada.get(clave), metricas);
+            String actual = describe(porClaveActual.get(clave), metricas);
+            if (!esperado.equals(actual)) {
+                String[] partes = clave.split("\\|", 2);
+                diferencias.add(Diferencia.builder()
+                        .tabla(tabla)
+                        .fecha(LocalDate.parse(partes[0]))
+                        .clave(columnaClave != null ? partes[1] : null)
+                        .esperado(esperado)
+                        .actual(actual)
+                        .build());
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Object>> index(List<Map<String, Object>> filas, String columnaClave) {
+        Map<String, Map<String, Object>> porClave = new TreeMap<>();
+        for (Map<String, Object> fila : filas) {
+            String clave = toLocalDate(fila.get("fecha")) + "|"
+                    + (columnaClave != null ? fila.get(columnaClave) : "");
+            porClave.put(clave, fila);
+        }
+        return porClave;
+    }
+
+    // Métricas normalizadas ("pedidos=3, ventas=1500.00"); una fila faltante o en cero da ceros
+    private static String describe(Map<String, Object> fila, String[] metricas) {
+        StringBuilder texto = new StringBuilder();
+        for (String metrica : metricas) {
+            Object valor = fila != null ? fila.get(metrica) : null;
+            BigDecimal numero = valor != null ? new BigDecimal(valor.toString()) : BigDecimal.ZERO;
+            if (texto.length() > 0) {
+                texto.append(", ");
+            }
+            texto.append(metrica).append('=').append(numero.stripTrailingZeros().toPlainString());
+        }
+        return texto.toString();
+    }
+
+    private static LocalDate toLocalDate(Object valor) {
+        return valor instanceof Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+    }
+
+    private LocalDate[] paidOrdersRange() {
+        return jdbcTemplate.query(SQL_RANGO_PEDIDOS, rs -> {
+            if (!rs.next() || rs.getTimestamp(1) == null) {
+                return null;
+            }
+            return new LocalDate[] { rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                    rs.getTimestamp(2).toLocalDateTime().toLocalDate() };
+        });
+    }
+}
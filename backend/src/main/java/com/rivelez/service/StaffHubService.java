@@ -0,0 +1,122 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.OrderDTO;
+import com.rivelez.dto.OrderDeltaDTO;
+import com.rivelez.event.OrderChangedEvent;
+import com.rivelez.event.TableChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publica en los tópicos STOMP los cambios de pedidos y mesas, para que las
+ * pantallas del personal dejen de hacer polling.
+ *
+ * Los cambios se acumulan por entidad y se envían en lotes cada
+ * staff.hub.flush-ms: si un pedido cambia varias veces dentro de la ventana,
+ * solo viaja su último estado. Los publicadores nunca esperan a la red.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StaffHubService {
+
+    public static final String TOPIC_COCINA = "/topic/cocina";
+    public static final String TOPIC_SALON = "/topic/salon";
+    public static final String TOPIC_PAGOS = "/topic/pagos";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Clave "tópico|id" -> último payload pendiente de envío
+    private final Map<String, Object> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Encola el cambio de un pedido para cocina y caja
+     */
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDTO pedido = event.getPedido();
+        OrderDeltaDTO delta = toDelta(pedido, event.getTipo());
+
+        if (event.getTipo() != OrderChangedEvent.Tipo.PAGO) {
+            enqueue(TOPIC_COCINA, pedido.getId(), delta);
+        }
+        // Caja no necesita el detalle de items
+        enqueue(TOPIC_PAGOS, pedido.getId(), delta.toBuilder().items(null).build());
+    }
+
+    /**
+     * Encola el cambio de una mesa para el plano del salón
+     */
+    @TransactionalEventListener
+    public void onTableChanged(TableChangedEvent event) {
+        enqueue(TOPIC_SALON, event.getMesa().getId(), event);
+    }
+
+    /**
+     * Envía los cambios acumulados
+     */
+    @Scheduled(fixedDelayString = "${staff.hub.flush-ms:250}")
+    public void flush() {
+        for (String clave : pendientes.keySet()) {
+            Object payload = pendientes.remove(clave);
+            if (payload == null) {
+                continue;
+            }
+            String topico = clave.substring(0, clave.indexOf('|'));
+            try {
+                messagingTemplate.convertAndSend(topico, payload);
+            } catch (Exception e) {
+                log.warn("No se pudo publicar en {}: {}", topico, e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(String topico, Long id, Object payload) {
+        pendientes.merge(topico + "|" + id, payload, this::combine);
+    }
+
+    /**
+     * Combina dos cambios pendientes de la misma entidad conservando la
+     * información que el último no trae (items, alta del pedido)
+     */
+    private Object combine(Object anterior, Object nuevo) {
+        if (!(anterior instanceof OrderDeltaDTO previo) || !(nuevo instanceof OrderDeltaDTO ultimo)
+                || ultimo.getTipo() == OrderChangedEvent.Tipo.ELIMINADO) {
+            return nuevo;
+        }
+
+        OrderDeltaDTO.OrderDeltaDTOBuilder combinado = ultimo.toBuilder();
+        if (ultimo.getItems() == null) {
+            combinado.items(previo.getItems());
+        }
+        if (previo.getTipo() == OrderChangedEvent.Tipo.CREADO) {
+            combinado.tipo(OrderChangedEvent.Tipo.CREADO);
+        }
+        return combinado.build();
+    }
+
+    private OrderDeltaDTO toDelta(OrderDTO pedido, OrderChangedEvent.Tipo tipo) {
+        boolean conItems = tipo == OrderChangedEvent.Tipo.CREADO || tipo == OrderChangedEvent.Tipo.ITEMS_AGREGADOS;
+        return OrderDeltaDTO.builder()
+                .id(pedido.getId())
+                .tipo(tipo)
+                .numeroPedido(pedido.getNumeroPedido())
+                .numeroMesa(pedido.getNumeroMesa())
+                .estado(pedido.getEstado())
+                .total(pedido.getTotal())
+                .metodoPago(pedido.getMetodoPago())
+                .listoParaPagar(pedido.getListoParaPagar())
+                .metodoPagoSolicitado(pedido.getMetodoPagoSolicitado())
+                .items(conItems ? pedido.getItems() : null)
+                .fechaCreacion(pedido.getFechaCreacion())
+                .fechaActualizacion(pedido.getFechaActualizacion())
+                .build();
+    }
+}
@@ -7,24 +7,37 @@ import com.rivelez.dto.StockMovementDTO;
 import com.rivelez.entity.StockItem;
 import com.rivelez.entity.StockMovement;
 import com.rivelez.entity.StockMovementType;
+import com.rivelez.event.StockItemCreatedEvent;
 import com.rivelez.repository.StockItemRepository;
 import com.rivelez.repository.StockMovementRepository;
 import com.rivelez.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class StockService {
 
+    private static final String SQL_ENTRADA_RELATIVA = "UPDATE stock_items SET cantidad_actual = cantidad_actual + ? WHERE id = ?";
+    private static final String SQL_SALIDA_RELATIVA = "UPDATE stock_items SET cantidad_actual = GREATEST(cantidad_actual - ?, 0) WHERE id = ?";
+    private static final String SQL_INSERT_MOVIMIENTO = "INSERT INTO stock_movements (stock_item_id, tipo, cantidad, motivo, fecha) VALUES (?, ?, ?, ?, ?)";
+
     private final StockItemRepository stockItemRepository;
     private final StockMovementRepository stockMovementRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Obtiene todos los items de stock
@@ -71,6 +84,7 @@ public class StockService {
                 .build();
 
         StockItem savedItem = stockItemRepository.save(item);
+        eventPublisher.publishEvent(new StockItemCreatedEvent(savedItem.getId(), savedItem.getNombre()));
 
         // Registrar movimiento inicial si la cantidad > 0
         if (request.getCantidadActual() > 0) {
@@ -152,6 +166,43 @@ public class StockService {
         return toDTO(savedItem);
     }
 
+    /**
+     * Aplica en lote los consumos (SALIDA) o restauraciones (ENTRADA) de un
+     * pedido. Las cantidades ya vienen agregadas por item de stock; se aplican
+     * con UPDATE relativos (sin leer-modificar-escribir, así pedidos
+     * concurrentes no pisan sus cambios) en orden de id para que dos pedidos
+     * siempre tomen los locks de fila en el mismo orden.
+     *
+     * Un consumo nunca falla por falta de stock: el pedido ya está
+     * confirmado, así que se descuenta todo y el item que no alcanza queda
+     * en 0 (sin pasar a negativo, que rechazaría el CHECK de la tabla donde
+     * existe). El movimiento registra lo que pidió la receta; el outbox avisa
+     * del stock bajo o agotado.
+     */
+    @Transactional
+    public void applyMovements(Map<Long, Integer> cantidadesPorItem, StockMovementType tipo, String motivo) {
+        if (cantidadesPorItem.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> movimientos = new ArrayList<>(new TreeMap<>(cantidadesPorItem).entrySet());
+        String sqlAjuste = tipo == StockMovementType.SALIDA ? SQL_SALIDA_RELATIVA : SQL_ENTRADA_RELATIVA;
+        Timestamp fecha = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(sqlAjuste, movimientos, movimientos.size(), (ps, movimiento) -> {
+            ps.setInt(1, movimiento.getValue());
+            ps.setLong(2, movimiento.getKey());
+        });
+
+        jdbcTemplate.batchUpdate(SQL_INSERT_MOVIMIENTO, movimientos, movimientos.size(), (ps, movimiento) -> {
+            ps.setLong(1, movimiento.getKey());
+            ps.setString(2, tipo.name());
+            ps.setInt(3, movimiento.getValue());
+            ps.setString(4, motivo);
+            ps.setTimestamp(5, fecha);
+        });
+    }
+
     /**
      * Obtiene historial de movimientos de un item
      */
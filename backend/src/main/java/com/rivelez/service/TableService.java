@@ -4,8 +4,10 @@ import com.rivelez.dto.TableDTO;
 import com.rivelez.dto.TableRequest;
 import com.rivelez.entity.RestaurantTable;
 import com.rivelez.entity.TableStatus;
+import com.rivelez.event.TableChangedEvent;
 import com.rivelez.repository.TableRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
 public class TableService {
 
     private final TableRepository tableRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todas las mesas ordenadas por número
@@ -74,7 +77,7 @@ public class TableService {
                 .ocupantes(request.getOcupantes())
                 .build();
 
-        return toDTO(tableRepository.save(table));
+        return publishChange(tableRepository.save(table));
     }
 
     /**
@@ -102,7 +105,7 @@ public class TableService {
             table.setOcupantes(request.getOcupantes());
         }
 
-        return toDTO(tableRepository.save(table));
+        return publishChange(tableRepository.save(table));
     }
 
     /**
@@ -124,7 +127,7 @@ public class TableService {
             table.setPedidoActualId(null);
         }
 
-        return toDTO(tableRepository.save(table));
+        return publishChange(tableRepository.save(table));
     }
 
     /**
@@ -132,10 +135,19 @@ public class TableService {
      */
     @Transactional
     public void deleteTable(Long id) {
-        if (!tableRepository.existsById(id)) {
-            throw new RuntimeException("Mesa no encontrada");
-        }
-        tableRepository.deleteById(id);
+        RestaurantTable table = tableRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Mesa no encontrada"));
+        tableRepository.delete(table);
+        eventPublisher.publishEvent(new TableChangedEvent(toDTO(table), true));
+    }
+
+    /**
+     * Publica el cambio de la mesa para las pantallas en tiempo real
+     */
+    TableDTO publishChange(RestaurantTable table) {
+        TableDTO dto = toDTO(table);
+        eventPublisher.publishEvent(new TableChangedEvent(dto, false));
+        return dto;
     }
 
     /**
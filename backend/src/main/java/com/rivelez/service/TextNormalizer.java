@@ -0,0 +1,63 @@
+package com.rivelez.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto en español para las búsquedas: minúsculas, sin
+ * tildes ni diéresis ("Morrón" → "morron", "ñ" → "n") y separación en
+ * palabras descartando artículos y preposiciones.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    // Palabras que no aportan a la búsqueda ("milanesa a la napolitana")
+    private static final Set<String> VACIAS = Set.of("a", "al", "con", "de", "del", "e", "el", "en", "la", "las",
+            "lo", "los", "o", "u", "un", "una", "y");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Texto en minúsculas, sin marcas diacríticas y con un solo espacio entre
+     * palabras
+     */
+    public static String normalize(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /**
+     * Palabras normalizadas del texto, sin las palabras vacías
+     */
+    public static List<String> tokens(String texto) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalize(texto).split(" ")) {
+            if (!token.isEmpty() && !VACIAS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Trigramas de una palabra, con bordes para que el inicio y el final
+     * pesen ("mila" → " mi", "mil", "ila", "la ")
+     */
+    public static List<String> trigrams(String token) {
+        String conBordes = " " + token + " ";
+        List<String> trigramas = new ArrayList<>(conBordes.length() - 2);
+        for (int i = 0; i + 3 <= conBordes.length(); i++) {
+            trigramas.add(conBordes.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+}
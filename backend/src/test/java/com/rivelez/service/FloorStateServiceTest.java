@@ -0,0 +1,86 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.FloorTableDTO;
+import com.rivelez.dto.OrderDTO;
+import com.rivelez.dto.TableDTO;
+import com.rivelez.entity.OrderStatus;
+import com.rivelez.entity.TableStatus;
+import com.rivelez.event.OrderChangedEvent;
+import com.rivelez.event.TableChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Eventos de pedidos que llegan fuera de orden al plano del salón
+ */
+class FloorStateServiceTest {
+
+    private static final LocalDateTime CREADO = LocalDateTime.of(2024, 5, 10, 20, 0);
+
+    private FloorStateService floorStateService;
+
+    @BeforeEach
+    void setUp() {
+        floorStateService = new FloorStateService(mock(TableService.class), mock(OrderService.class));
+        floorStateService.onTableChanged(new TableChangedEvent(TableDTO.builder()
+                .id(1L)
+                .numero(3)
+                .capacidad(4)
+                .estado(TableStatus.OCCUPIED)
+                .build(), false));
+    }
+
+    @Test
+    void lateUpdateDoesNotReviveAPaidOrder() {
+        floorStateService.onOrderChanged(event(OrderStatus.NUEVO, 0, OrderChangedEvent.Tipo.CREADO));
+        floorStateService.onOrderChanged(event(OrderStatus.PAGADO, 2, OrderChangedEvent.Tipo.PAGO));
+        floorStateService.onOrderChanged(event(OrderStatus.LISTO, 1, OrderChangedEvent.Tipo.ESTADO));
+
+        assertThat(pedidoEnMesa()).isNull();
+    }
+
+    @Test
+    void lateUpdateDoesNotReviveADeletedOrder() {
+        floorStateService.onOrderChanged(event(OrderStatus.CANCELADO, 1, OrderChangedEvent.Tipo.ESTADO));
+        floorStateService.onOrderChanged(event(OrderStatus.CANCELADO, 1, OrderChangedEvent.Tipo.ELIMINADO));
+        floorStateService.onOrderChanged(event(OrderStatus.EN_PREPARACION, 0, OrderChangedEvent.Tipo.ESTADO));
+
+        assertThat(pedidoEnMesa()).isNull();
+    }
+
+    @Test
+    void olderUpdateDoesNotOverwriteANewerOne() {
+        floorStateService.onOrderChanged(event(OrderStatus.LISTO, 2, OrderChangedEvent.Tipo.ESTADO));
+        floorStateService.onOrderChanged(event(OrderStatus.EN_PREPARACION, 1, OrderChangedEvent.Tipo.ESTADO));
+
+        assertThat(pedidoEnMesa().getEstado()).isEqualTo(OrderStatus.LISTO);
+    }
+
+    @Test
+    void newerUpdateReplacesTheOrder() {
+        floorStateService.onOrderChanged(event(OrderStatus.NUEVO, 0, OrderChangedEvent.Tipo.CREADO));
+        floorStateService.onOrderChanged(event(OrderStatus.EN_PREPARACION, 1, OrderChangedEvent.Tipo.ESTADO));
+
+        assertThat(pedidoEnMesa().getEstado()).isEqualTo(OrderStatus.EN_PREPARACION);
+    }
+
+    private OrderDTO pedidoEnMesa() {
+        FloorTableDTO mesa = floorStateService.getFloor().get(0);
+        return mesa.getPedido();
+    }
+
+    private static OrderChangedEvent event(OrderStatus estado, int minutos, OrderChangedEvent.Tipo tipo) {
+        return new OrderChangedEvent(OrderDTO.builder()
+                .id(10L)
+                .numeroMesa(3)
+                .estado(estado)
+                .fechaCreacion(CREADO)
+                .fechaActualizacion(CREADO.plusMinutes(minutos))
+                .build(), tipo);
+    }
+}
@@ -0,0 +1,62 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.TableDTO;
+import com.rivelez.entity.TableStatus;
+import com.rivelez.event.TableChangedEvent;
+import com.rivelez.repository.DailyOccupancyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los cambios de mesa llegan después del commit: el día que se cierra en
+ * ese momento tiene que quedar guardado igual.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OccupancyService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OccupancyServiceTest {
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private DailyOccupancyRepository dailyOccupancyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void dayClosedAfterCommitIsSaved() {
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        ReflectionTestUtils.setField(occupancyService, "hoy", new OccupancyService.Serie(ayer));
+
+        TableDTO mesa = new TableDTO();
+        mesa.setId(1L);
+        mesa.setEstado(TableStatus.OCCUPIED);
+        // Mismo contexto que @TransactionalEventListener: después del commit
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> TransactionSynchronizationManager
+                .registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        occupancyService.onTableChanged(new TableChangedEvent(mesa, false));
+                    }
+                }));
+
+        assertThat(dailyOccupancyRepository.findById(ayer)).isPresent();
+    }
+}
@@ -0,0 +1,156 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.OrderDTO;
+import com.rivelez.entity.CustomerOrder;
+import com.rivelez.entity.OrderItem;
+import com.rivelez.entity.OrderStatus;
+import com.rivelez.entity.Product;
+import com.rivelez.entity.ProductCategory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los listados de pedidos traen items y productos en la misma sentencia:
+ * la cantidad de sentencias no crece con los pedidos ni con sus items.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderService.class)
+class OrderQueryStatementCountTest {
+
+    private static final int MESA = 5;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private TableService tableService;
+
+    @MockBean
+    private RecipeService recipeService;
+
+    @MockBean
+    private OrderOutboxService orderOutboxService;
+
+    @MockBean
+    private OrderNumberService orderNumberService;
+
+    @MockBean
+    private PricingService pricingService;
+
+    @MockBean
+    private SalesRollupService salesRollupService;
+
+    private Statistics statistics;
+    private List<Product> productos;
+    private int pedidosCreados;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        productos = List.of(
+                entityManager.persist(product("Milanesa", ProductCategory.PRINCIPAL)),
+                entityManager.persist(product("Flan", ProductCategory.POSTRE)),
+                entityManager.persist(product("Agua", ProductCategory.BEBIDA)));
+    }
+
+    @Test
+    void activeOrdersUseConstantStatements() {
+        assertConstantStatements(orderService::getActiveOrders);
+    }
+
+    @Test
+    void pendingOrdersUseConstantStatements() {
+        assertConstantStatements(orderService::getPendingOrders);
+    }
+
+    @Test
+    void ordersByTableUseConstantStatements() {
+        assertConstantStatements(() -> orderService.getOrdersByTable(MESA));
+    }
+
+    // Mide el listado con pocos pedidos y con muchos más (y más items)
+    private void assertConstantStatements(Supplier<List<OrderDTO>> listado) {
+        createOrders(2, 1);
+        long conPocos = countStatements(listado, 2, 1);
+
+        createOrders(20, 3);
+        long conMuchos = countStatements(listado, 22, 3);
+
+        assertThat(conPocos).isEqualTo(1);
+        assertThat(conMuchos).isEqualTo(conPocos);
+    }
+
+    private long countStatements(Supplier<List<OrderDTO>> listado, int pedidosEsperados, int maxItems) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderDTO> pedidos = listado.get();
+
+        assertThat(pedidos).hasSize(pedidosEsperados);
+        assertThat(pedidos).allSatisfy(pedido -> {
+            assertThat(pedido.getItems()).isNotEmpty().hasSizeLessThanOrEqualTo(maxItems);
+            pedido.getItems().forEach(item -> assertThat(item.getCategoriaProducto()).isNotNull());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createOrders(int cantidad, int itemsPorPedido) {
+        for (int i = 0; i < cantidad; i++) {
+            CustomerOrder pedido = CustomerOrder.builder()
+                    .numeroPedido("PED-TEST-" + (++pedidosCreados))
+                    .numeroMesa(MESA)
+                    .personas(2)
+                    .estado(OrderStatus.NUEVO)
+                    .subtotal(BigDecimal.TEN)
+                    .total(BigDecimal.TEN)
+                    .build();
+            for (int j = 0; j < itemsPorPedido; j++) {
+                Product producto = productos.get(j % productos.size());
+                pedido.getItems().add(OrderItem.builder()
+                        .order(pedido)
+                        .producto(producto)
+                        .nombreProducto(producto.getNombre())
+                        .cantidad(1)
+                        .precioUnitario(producto.getPrecio())
+                        .build());
+            }
+            entityManager.persist(pedido);
+        }
+    }
+
+    private static Product product(String nombre, ProductCategory categoria) {
+        return Product.builder()
+                .nombre(nombre)
+                .precio(BigDecimal.ONE)
+                .categoria(categoria)
+                .disponible(true)
+                .imagen(nombre.toLowerCase() + ".png")
+                .build();
+    }
+}
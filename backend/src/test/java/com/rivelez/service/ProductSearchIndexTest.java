@@ -0,0 +1,114 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coincidencias, orden y actualización del índice de búsqueda de productos
+ */
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.putAll(List.of(
+                producto(1L, "Pizza Napolitana", "Con rodajas de tomate", "Tomate", "Mozzarella", "Ajo"),
+                producto(2L, "Milanesa a la Napolitana", "Con papas fritas", "Carne", "Jamón", "Queso"),
+                producto(3L, "Ensalada de Morrón", null, "Morrón", "Lechuga"),
+                producto(4L, "Sándwich de Jamón", "En pan de miga")));
+    }
+
+    @Test
+    void searchIgnoresAccentsAndCase() {
+        assertThat(ids("morron")).containsExactly(3L);
+        assertThat(ids("MORRÓN")).containsExactly(3L);
+        assertThat(ids("sandwich")).containsExactly(4L);
+    }
+
+    @Test
+    void nameMatchesRankAboveIngredients() {
+        assertThat(ids("jamon")).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void searchMatchesPrefixes() {
+        // Mismo puntaje: desempata el nombre
+        assertThat(ids("napo")).containsExactly(2L, 1L);
+        assertThat(ids("mozza")).containsExactly(1L);
+    }
+
+    @Test
+    void searchToleratesTypos() {
+        assertThat(ids("milaneza")).containsExactly(2L);
+        assertThat(ids("letchuga")).containsExactly(3L);
+    }
+
+    @Test
+    void shortWordsAreNotMatchedBySimilarity() {
+        assertThat(ids("aja")).isEmpty();
+    }
+
+    @Test
+    void searchRequiresEveryWordWhenSomeProductHasThemAll() {
+        assertThat(ids("napolitana tomate")).containsExactly(1L);
+    }
+
+    @Test
+    void searchFallsBackToProductsWithMostWords() {
+        assertThat(ids("pizza milanesa")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void searchRespectsLimitAndIgnoresStopWords() {
+        assertThat(index.search("napolitana", 1)).extracting(ProductDTO::getId).containsExactly(2L);
+        assertThat(ids("de la")).isEmpty();
+    }
+
+    @Test
+    void putReplacesThePreviousVersion() {
+        index.put(producto(3L, "Ensalada César", null, "Lechuga", "Pollo"));
+
+        assertThat(ids("morron")).isEmpty();
+        assertThat(ids("cesar")).containsExactly(3L);
+        assertThat(ids("lechuga")).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void removeDropsWordsAndTrigrams() {
+        index.remove(2L);
+
+        assertThat(ids("milanesa")).isEmpty();
+        assertThat(ids("milaneza")).isEmpty();
+        assertThat(ids("napolitana")).containsExactly(1L);
+        assertThat(ids("jamon")).containsExactly(4L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void removeOfUnknownProductIsIgnored() {
+        index.remove(99L);
+
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    private List<Long> ids(String consulta) {
+        return index.search(consulta, 10).stream().map(ProductDTO::getId).toList();
+    }
+
+    private static ProductDTO producto(Long id, String nombre, String descripcion, String... ingredientes) {
+        return ProductDTO.builder()
+                .id(id)
+                .nombre(nombre)
+                .descripcion(descripcion)
+                .ingredientes(List.of(ingredientes))
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.rivelez.service;
+
+import com.rivelez.dto.ProductDTO;
+import com.rivelez.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reindexado de productos al confirmarse sus cambios
+ */
+class ProductSearchServiceTest {
+
+    private ProductService productService;
+    private ProductSearchService productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        when(productService.getAllProducts()).thenReturn(List.of(
+                producto(1L, "Pizza Napolitana", "Tomate"),
+                producto(2L, "Empanada de Carne", "Carne", "Cebolla")));
+        productSearchService = new ProductSearchService(productService);
+        productSearchService.init();
+    }
+
+    @Test
+    void changedProductIsReindexed() {
+        when(productService.getProductById(2L)).thenReturn(producto(2L, "Empanada de Pollo", "Pollo", "Cebolla"));
+
+        productSearchService.onProductChanged(new ProductChangedEvent(2L, false));
+
+        assertThat(ids("carne")).isEmpty();
+        assertThat(ids("pollo")).containsExactly(2L);
+    }
+
+    @Test
+    void createdProductIsIndexed() {
+        when(productService.getProductById(3L)).thenReturn(producto(3L, "Fainá", "Garbanzo"));
+
+        productSearchService.onProductChanged(new ProductChangedEvent(3L, false));
+
+        assertThat(ids("faina")).containsExactly(3L);
+    }
+
+    @Test
+    void deletedProductIsRemoved() {
+        productSearchService.onProductChanged(new ProductChangedEvent(1L, true));
+
+        assertThat(ids("napolitana")).isEmpty();
+        assertThat(ids("empanada")).containsExactly(2L);
+    }
+
+    private List<Long> ids(String consulta) {
+        return productSearchService.search(consulta, 10).stream().map(ProductDTO::getId).toList();
+    }
+
+    private static ProductDTO producto(Long id, String nombre, String... ingredientes) {
+        return ProductDTO.builder()
+                .id(id)
+                .nombre(nombre)
+                .ingredientes(List.of(ingredientes))
+                .build();
+    }
+}
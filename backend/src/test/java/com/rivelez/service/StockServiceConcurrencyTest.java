@@ -0,0 +1,148 @@
+package com.rivelez.service;
+
+import com.rivelez.entity.StockItem;
+import com.rivelez.entity.StockMovementType;
+import com.rivelez.repository.StockItemRepository;
+import com.rivelez.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Descuentos de stock concurrentes: cada transacción confirma su propio
+ * UPDATE, así que no se pierden actualizaciones. Un consumo sin stock
+ * suficiente se aplica igual y deja el item en cero.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockServiceConcurrencyTest {
+
+    private static final int HILOS = 8;
+    private static final int PEDIDOS_POR_HILO = 25;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockItemRepository stockItemRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Test
+    void concurrentOrdersDoNotLoseUpdates() throws Exception {
+        StockItem pan = createItem("Pan concurrente", 1000);
+        StockItem carne = createItem("Carne concurrente", 1000);
+
+        // La mitad de los pedidos arma el mapa en el orden inverso: el lock en
+        // orden de id evita deadlocks igual
+        int pedidos = runConcurrently(i -> {
+            Map<Long, Integer> cantidades = new LinkedHashMap<>();
+            if (i % 2 == 0) {
+                cantidades.put(pan.getId(), 2);
+                cantidades.put(carne.getId(), 1);
+            } else {
+                cantidades.put(carne.getId(), 1);
+                cantidades.put(pan.getId(), 2);
+            }
+            stockService.applyMovements(cantidades, StockMovementType.SALIDA, "Pedido " + i);
+        });
+
+        assertThat(pedidos).isEqualTo(HILOS * PEDIDOS_POR_HILO);
+        assertThat(cantidad(pan)).isEqualTo(1000 - 2 * pedidos);
+        assertThat(cantidad(carne)).isEqualTo(1000 - pedidos);
+        assertThat(stockMovementRepository.findByItemIdOrderByFechaDesc(pan.getId())).hasSize(pedidos);
+    }
+
+    @Test
+    void concurrentOrdersStopAtZero() throws Exception {
+        int inicial = HILOS * PEDIDOS_POR_HILO / 2;
+        StockItem gaseosa = createItem("Gaseosa concurrente", inicial);
+
+        int aplicados = runConcurrently(i -> stockService.applyMovements(Map.of(gaseosa.getId(), 1),
+                StockMovementType.SALIDA, "Pedido " + i));
+
+        assertThat(aplicados).isEqualTo(HILOS * PEDIDOS_POR_HILO);
+        assertThat(cantidad(gaseosa)).isZero();
+        assertThat(stockMovementRepository.findByItemIdOrderByFechaDesc(gaseosa.getId())).hasSize(aplicados);
+    }
+
+    @Test
+    void insufficientStockStillDeductsEverything() {
+        StockItem queso = createItem("Queso insuficiente", 10);
+        StockItem tomate = createItem("Tomate insuficiente", 1);
+
+        stockService.applyMovements(Map.of(queso.getId(), 3, tomate.getId(), 2), StockMovementType.SALIDA, "Pedido");
+
+        assertThat(cantidad(queso)).isEqualTo(7);
+        assertThat(cantidad(tomate)).isZero();
+        assertThat(stockMovementRepository.findByItemIdOrderByFechaDesc(queso.getId())).hasSize(1);
+        assertThat(stockMovementRepository.findByItemIdOrderByFechaDesc(tomate.getId())).hasSize(1);
+    }
+
+    private interface Pedido {
+        void apply(int numero);
+    }
+
+    // Ejecuta HILOS x PEDIDOS_POR_HILO pedidos a la vez; devuelve cuántos se aplicaron
+    private int runConcurrently(Pedido pedido) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger aplicados = new AtomicInteger();
+        AtomicInteger numero = new AtomicInteger();
+        try {
+            List<Future<Void>> resultados = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                Callable<Void> tarea = () -> {
+                    largada.await();
+                    for (int p = 0; p < PEDIDOS_POR_HILO; p++) {
+                        pedido.apply(numero.incrementAndGet());
+                        aplicados.incrementAndGet();
+                    }
+                    return null;
+                };
+                resultados.add(executor.submit(tarea));
+            }
+            largada.countDown();
+            for (Future<Void> resultado : resultados) {
+                resultado.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return aplicados.get();
+    }
+
+    private StockItem createItem(String nombre, int cantidad) {
+        return stockItemRepository.save(StockItem.builder()
+                .nombre(nombre)
+                .cantidadActual(cantidad)
+                .cantidadMinima(0)
+                .unidadMedida("u")
+                .build());
+    }
+
+    private int cantidad(StockItem item) {
+        return stockItemRepository.findById(item.getId()).orElseThrow().getCantidadActual();
+    }
+}
@@ -0,0 +1,39 @@
+package com.rivelez.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Normalización de palabras para la búsqueda de productos
+ */
+class TextNormalizerTest {
+
+    @Test
+    void tokensFoldAccentsAndCase() {
+        assertThat(TextNormalizer.tokens("Morrón, JAMÓN y Ñoquis")).containsExactly("morron", "jamon", "noquis");
+        assertThat(TextNormalizer.tokens("Pingüino")).containsExactly("pinguino");
+    }
+
+    @Test
+    void tokensDropStopWords() {
+        assertThat(TextNormalizer.tokens("Milanesa a la Napolitana")).containsExactly("milanesa", "napolitana");
+        assertThat(TextNormalizer.tokens("de la")).isEmpty();
+    }
+
+    @Test
+    void tokensOfBlankTextAreEmpty() {
+        assertThat(TextNormalizer.tokens(null)).isEmpty();
+        assertThat(TextNormalizer.tokens("  -- ")).isEmpty();
+    }
+
+    @Test
+    void normalizeCollapsesSeparators() {
+        assertThat(TextNormalizer.normalize("  Café   CON-leche ")).isEqualTo("cafe con leche");
+    }
+
+    @Test
+    void trigramsIncludeWordBorders() {
+        assertThat(TextNormalizer.trigrams("mila")).containsExactly(" mi", "mil", "ila", "la ");
+    }
+}